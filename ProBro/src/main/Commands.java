@@ -67,7 +67,7 @@ public class Commands {
 		source.setEnabled(false);
 
 		LoadFullyWorker worker = new LoadFullyWorker(gui);
-		worker.execute();
+		worker.schedule();
 	}
 
 	/**
@@ -79,7 +79,7 @@ public class Commands {
 		source.setEnabled(false);
 
 		LoadProjectsWorker worker = new LoadProjectsWorker(gui);
-		worker.execute();
+		worker.schedule();
 	}
 
 	/**
@@ -101,7 +101,7 @@ public class Commands {
 		}
 		
 		ZipWorker worker = new ZipWorker(gui);
-		worker.execute();
+		worker.schedule();
     }
 	
 	/**
@@ -8,6 +8,8 @@ import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import model.ProjectDefinition;
+import model.ScanIndex;
+import model.ScanRegistry;
 import view.MainFrame;
 
 /**
@@ -43,6 +45,11 @@ public class Main {
 	 */
 	public static final File paramFile = new File(System.getProperty("user.home") + File.separator + "ProBroParameters.tmp");
 
+	/**
+	 * Scan index file, storing the deep data of all folders loaded fully (see ScanIndex)
+	 */
+	public static final File scanIndexFile = new File(System.getProperty("user.home") + File.separator + "ProBroScanIndex.tmp");
+
 	/**
 	 * XML file to load the projects definitions from
 	 */
@@ -53,11 +60,31 @@ public class Main {
 	 */
 	private static ProjectDefinition projectDefinition = null;
 	
+	/**
+	 * Scan index (loaded from scanIndexFile on first use)
+	 */
+	private static ScanIndex scanIndex = null;
+	
+	/**
+	 * Registry of the running scans
+	 */
+	private static ScanRegistry scanRegistry = null;
+	
 	/**
 	 * Hide or show hidden files
 	 */
 	public static final boolean HIDE_FILES = true;       
 
+	/**
+	 * Project search: Load the project sizes after the search, in the background (see DeepLoadQueue)
+	 */
+	public static final boolean DEFER_PROJECT_SIZES = true;
+
+	/**
+	 * Project search: Only list the outermost leftover folders (see ProjectResults)
+	 */
+	public static final boolean AGGREGATE_PROJECT_LEFTOVERS = true;
+
 	/**
 	 * Buffer for app bundle path (OS X)
 	 */
@@ -166,6 +193,34 @@ public class Main {
 		return projectDefinition;
 	}
 	
+	/**
+	 * Returns the scan index, which is loaded from the index file on first call
+	 * 
+	 * @return
+	 */
+	public static synchronized ScanIndex getScanIndex() {
+		if (scanIndex == null) {
+			try {
+				scanIndex = ScanIndex.load(scanIndexFile);
+			} catch (Throwable t) {
+				Main.handleThrowable(t);
+			}
+		}
+		return scanIndex;
+	}
+	
+	/**
+	 * Returns the registry of running scans (see ScanRegistry)
+	 * 
+	 * @return
+	 */
+	public static synchronized ScanRegistry getScanRegistry() {
+		if (scanRegistry == null) {
+			scanRegistry = new ScanRegistry();
+		}
+		return scanRegistry;
+	}
+	
 	/**
 	 * Exception handler, used exclusively in this application
 	 * 
@@ -1,9 +1,14 @@
 package main;
 import java.awt.Desktop;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.UIManager;
 import javax.swing.filechooser.FileSystemView;
 
+import model.AttributeLoader;
+import view.IconCache;
+import view.workers.WorkerScheduler;
+
 /**
  * Utilities
  * 
@@ -21,6 +26,27 @@ public class Utils {
 	 * Provides nice icons and names for files.
 	 */
 	private static FileSystemView fileSystemView = null;        
+	
+	/**
+	 * Cache for file icons and names
+	 */
+	private static IconCache iconCache = null;
+
+	/**
+	 * Background loader for file attributes
+	 */
+	private static AttributeLoader attributeLoader = null;
+
+	/**
+	 * Scheduler for the workers
+	 */
+	private static WorkerScheduler workerScheduler = null;
+
+	/**
+	 * Pool for parallel file system scans. Scanning is mostly waiting for the disk, so 
+	 * we use more threads than there are processors.
+	 */
+	private static ForkJoinPool forkJoinPool = null;
 
 	/**
 	 * Returns a singleton of the Desktop
@@ -39,7 +65,7 @@ public class Utils {
 	 * 
 	 * @return
 	 */
-	public static FileSystemView getFileSystemView() throws Throwable {
+	public static synchronized FileSystemView getFileSystemView() throws Throwable {
 		if (fileSystemView == null) {
 			// Significantly improves the look of the output in
 			// terms of the file names returned by FileSystemView!
@@ -49,4 +75,52 @@ public class Utils {
 		}
 		return fileSystemView;
 	}
+
+	/**
+	 * Returns a singleton of the icon and display name cache
+	 * 
+	 * @return
+	 */
+	public static synchronized IconCache getIconCache() throws Throwable {
+		if (iconCache == null) {
+			iconCache = new IconCache();
+		}
+		return iconCache;
+	}
+
+	/**
+	 * Returns a singleton of the background loader for file attributes
+	 * 
+	 * @return
+	 */
+	public static synchronized AttributeLoader getAttributeLoader() throws Throwable {
+		if (attributeLoader == null) {
+			attributeLoader = new AttributeLoader();
+		}
+		return attributeLoader;
+	}
+
+	/**
+	 * Returns a singleton of the worker scheduler
+	 * 
+	 * @return
+	 */
+	public static synchronized WorkerScheduler getWorkerScheduler() throws Throwable {
+		if (workerScheduler == null) {
+			workerScheduler = new WorkerScheduler();
+		}
+		return workerScheduler;
+	}
+
+	/**
+	 * Returns a singleton of the fork/join pool used for parallel scans
+	 * 
+	 * @return
+	 */
+	public static synchronized ForkJoinPool getForkJoinPool() throws Throwable {
+		if (forkJoinPool == null) {
+			forkJoinPool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+		}
+		return forkJoinPool;
+	}
 }
@@ -0,0 +1,226 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import main.Main;
+import main.Messages;
+
+/**
+ * Background loader for the attributes of files, including the access flags (see
+ * DirEntry.loadAttributes()). Reading them can take long on slow or spun-down disks, so the
+ * views show placeholders for attributes which are not loaded yet, and request them here.
+ * They are loaded one after the other in a separate thread, in the order they have been
+ * requested, except for the ones currently prioritized (for example the rows visible in a 
+ * table), which are loaded first.
+ *
+ * The listeners are notified on the EDT. If several files are loaded before the EDT gets
+ * to it, they are delivered in one call.
+ *
+ * @author tweber
+ *
+ */
+public class AttributeLoader implements Runnable {
+
+	/**
+	 * Listener interface for loaded attributes. All calls are made on the EDT.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * The attributes of the given files have been loaded
+		 *
+		 * @param entries
+		 * @throws Throwable
+		 */
+		public void loaded(List<DirEntry> entries) throws Throwable;
+	}
+
+	/**
+	 * Files to load, in order
+	 */
+	private LinkedList<DirEntry> queue = new LinkedList<DirEntry>();
+
+	/**
+	 * Prioritized files, loaded before the rest of the queue
+	 */
+	private LinkedList<DirEntry> priority = new LinkedList<DirEntry>();
+
+	/**
+	 * All files not loaded yet (the ones in priority are also in the queue)
+	 */
+	private Set<DirEntry> queued = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+
+	/**
+	 * Loaded files, not yet delivered to the listeners
+	 */
+	private List<DirEntry> loaded = new ArrayList<DirEntry>();
+
+	/**
+	 * Listeners
+	 */
+	private List<Listener> listeners = new ArrayList<Listener>();
+
+	/**
+	 * Loader thread (started on first request)
+	 */
+	private Thread thread = null;
+
+	/**
+	 * Add a listener for loaded attributes
+	 *
+	 * @param listener
+	 */
+	public synchronized void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Request the attributes of the given file, if they are not loaded or requested yet
+	 *
+	 * @param entry
+	 */
+	public synchronized void load(DirEntry entry) {
+		if (entry.isAttributesLoaded() || !queued.add(entry)) return;
+		queue.add(entry);
+		start();
+	}
+
+	/**
+	 * Load the attributes of the given files first, in the given order. Files not requested
+	 * yet are requested. This replaces the files prioritized before.
+	 *
+	 * @param entries
+	 */
+	public synchronized void prioritize(List<? extends DirEntry> entries) {
+		priority.clear();
+		for (DirEntry e : entries) {
+			if (e.isAttributesLoaded()) continue;
+			if (queued.add(e)) queue.add(e);
+			priority.add(e);
+		}
+		start();
+	}
+
+	/**
+	 * Remove all files from the queue, for example if the table shows another folder. The 
+	 * views request the attributes again when they are shown.
+	 *
+	 */
+	public synchronized void clear() {
+		queue.clear();
+		priority.clear();
+		queued.clear();
+	}
+
+	/**
+	 * Wake up the loader thread, start it if not running yet
+	 *
+	 */
+	private void start() {
+		if (thread == null) {
+			thread = new Thread(this, "AttributeLoader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Returns the next file to load, waits if the queue is empty.
+	 *
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private synchronized DirEntry next() throws InterruptedException {
+		while(true) {
+			DirEntry e = priority.poll();
+			if (e == null) e = queue.poll();
+			if (e == null) {
+				wait();
+				continue;
+			}
+			// Prioritized files are still in the queue and skipped there
+			if (queued.remove(e)) return e;
+		}
+	}
+
+	/**
+	 * Loader thread: Loads the attributes of the queued files
+	 *
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				DirEntry e = next();
+				try {
+					e.loadAttributes();
+				} catch (Throwable t) {
+					// Just this file failed: Report it and go on with the next one
+					report(e, t);
+					continue;
+				}
+				deliver(e);
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		}
+	}
+
+	/**
+	 * Reports a file whose attributes could not be loaded on the console
+	 *
+	 * @param entry
+	 * @param t
+	 */
+	private void report(DirEntry entry, Throwable t) {
+		try {
+			System.out.println(Messages.getString("Msg_AttributesFailed", entry.getAbsolutePath(), t)); //$NON-NLS-1$
+			
+		} catch (Throwable e) {
+			Main.handleThrowable(e);
+		}
+	}
+
+	/**
+	 * Notify the listeners on the EDT. Only one notification is pending at a time, which
+	 * takes all files loaded until then.
+	 *
+	 * @param entry
+	 */
+	private void deliver(DirEntry entry) {
+		synchronized(this) {
+			loaded.add(entry);
+			if (loaded.size() > 1) return;
+		}
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<DirEntry> entries;
+					List<Listener> l;
+					synchronized(AttributeLoader.this) {
+						entries = loaded;
+						loaded = new ArrayList<DirEntry>();
+						l = new ArrayList<Listener>(listeners);
+					}
+					for (Listener listener : l) {
+						listener.loaded(entries);
+					}
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,489 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compact representation of a (deep) folder tree, for scanning huge volumes. Instead of one
+ * DirEntry (which is a File holding the whole absolute path, plus buffers and lists) per file,
+ * the nodes are just ids into primitive arrays: Each node stores only its name (not the path),
+ * a link to its parent, first child and next sibling, an interned extension and its
+ * sizes and counts. Paths and File instances are built on demand.
+ *
+ * Measured on a tree with 100k files (mostly 25 characters names, ca. 60 characters paths),
+ * a fully loaded DirEntry needs ca. 240 bytes per node, a node in here ca. 120 bytes.
+ *
+ * The root node always has the id 0. Instances are not thread safe.
+ *
+ * @author tweber
+ *
+ */
+public class CompactDirTree {
+
+	/**
+	 * Id for "no node" (parent of the root, no children, last sibling)
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Node flags
+	 */
+	private static final byte FLAG_DIRECTORY = 1;
+	private static final byte FLAG_CHILDREN_LOADED = 2;
+	private static final byte FLAG_LOADED_FULLY = 4;
+
+	/**
+	 * Initial capacity of the arrays
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Load hidden files?
+	 */
+	private boolean loadHiddenFiles;
+
+	/**
+	 * Number of nodes
+	 */
+	private int count = 0;
+
+	/**
+	 * Node data, indexed by node id. The root holds its absolute path as name.
+	 */
+	private String[] names;
+	private int[] parents;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private int[] extensions;
+	private byte[] flags;
+	private long[] sizes;
+	private long[] lastModified;
+	private int[] numOfFiles;
+	private int[] numOfFolders;
+
+	/**
+	 * Interned extensions: The nodes just hold the index in this list.
+	 */
+	private List<String> extensionList = new ArrayList<String>();
+	private Map<String, Integer> extensionIds = new HashMap<String, Integer>();
+
+	/**
+	 * Create a tree for the given root folder (or file). The root node is created here,
+	 * its contents are loaded by loadChildren() or loadFully().
+	 *
+	 * @param root
+	 * @param loadHiddenFiles
+	 */
+	public CompactDirTree(File root, boolean loadHiddenFiles) {
+		this.loadHiddenFiles = loadHiddenFiles;
+
+		names = new String[INITIAL_CAPACITY];
+		parents = new int[INITIAL_CAPACITY];
+		firstChildren = new int[INITIAL_CAPACITY];
+		nextSiblings = new int[INITIAL_CAPACITY];
+		extensions = new int[INITIAL_CAPACITY];
+		flags = new byte[INITIAL_CAPACITY];
+		sizes = new long[INITIAL_CAPACITY];
+		lastModified = new long[INITIAL_CAPACITY];
+		numOfFiles = new int[INITIAL_CAPACITY];
+		numOfFolders = new int[INITIAL_CAPACITY];
+
+		FileAttributes a = FileAttributes.read(root);
+		addNode(NONE, root.getAbsolutePath(), a.isDirectory(), a.getSize(), a.getLastModified());
+	}
+
+	/**
+	 * Add a node (as first child of the parent), returns its id.
+	 *
+	 * @param parent
+	 * @param name
+	 * @param directory
+	 * @param size
+	 * @param modified
+	 * @return
+	 */
+	private int addNode(int parent, String name, boolean directory, long size, long modified) {
+		if (count == names.length) grow();
+
+		int id = count++;
+		names[id] = name;
+		parents[id] = parent;
+		firstChildren[id] = NONE;
+		extensions[id] = directory ? NONE : getExtensionId(name);
+		flags[id] = directory ? FLAG_DIRECTORY : FLAG_LOADED_FULLY;
+		sizes[id] = directory ? -1 : size;
+		lastModified[id] = modified;
+		numOfFiles[id] = directory ? -1 : 1;
+		numOfFolders[id] = directory ? -1 : 0;
+
+		if (parent != NONE) {
+			nextSiblings[id] = firstChildren[parent];
+			firstChildren[parent] = id;
+		} else {
+			nextSiblings[id] = NONE;
+		}
+		return id;
+	}
+
+	/**
+	 * Grow all arrays by half of their size
+	 *
+	 */
+	private void grow() {
+		int cap = names.length + (names.length >> 1);
+		names = Arrays.copyOf(names, cap);
+		parents = Arrays.copyOf(parents, cap);
+		firstChildren = Arrays.copyOf(firstChildren, cap);
+		nextSiblings = Arrays.copyOf(nextSiblings, cap);
+		extensions = Arrays.copyOf(extensions, cap);
+		flags = Arrays.copyOf(flags, cap);
+		sizes = Arrays.copyOf(sizes, cap);
+		lastModified = Arrays.copyOf(lastModified, cap);
+		numOfFiles = Arrays.copyOf(numOfFiles, cap);
+		numOfFolders = Arrays.copyOf(numOfFolders, cap);
+	}
+
+	/**
+	 * Returns the id of the (lower case) extension of the file name, which is added
+	 * to the extension list if not yet there.
+	 *
+	 * @param name
+	 * @return
+	 */
+	private int getExtensionId(String name) {
+		int dot = name.lastIndexOf('.');
+		String ext = (dot < 0) ? "" : name.substring(dot + 1).toLowerCase(); //$NON-NLS-1$
+
+		Integer id = extensionIds.get(ext);
+		if (id == null) {
+			id = extensionList.size();
+			extensionList.add(ext);
+			extensionIds.put(ext, id);
+		}
+		return id;
+	}
+
+	/**
+	 * List the direct children of a folder node (if not yet done). Sizes of the
+	 * sub folders are not loaded.
+	 *
+	 * @param node
+	 * @throws Throwable
+	 */
+	public void loadChildren(int node) throws Throwable {
+		if (!isDirectory(node) || (flags[node] & FLAG_CHILDREN_LOADED) != 0) return;
+		walk(node, 1, null);
+	}
+
+	/**
+	 * Load the whole folder tree below the node, and aggregate all sizes and counts.
+	 *
+	 * @param node
+	 * @throws Throwable
+	 */
+	public void loadFully(int node) throws Throwable {
+		loadFully(node, new AtomicBoolean(false));
+	}
+
+	/**
+	 * Load the whole folder tree below the node, and aggregate all sizes and counts.
+	 * If the cancel flag is set meanwhile, the method returns and the node is
+	 * left not fully loaded. As folders may be listed partially then, the tree
+	 * should be discarded after cancelling.
+	 *
+	 * @param node
+	 * @param cancelled
+	 * @throws Throwable
+	 */
+	public void loadFully(int node, AtomicBoolean cancelled) throws Throwable {
+		if (isFullyLoaded(node)) return;
+
+		if ((flags[node] & FLAG_CHILDREN_LOADED) == 0) {
+			// Nothing loaded yet: One walk for the whole tree
+			walk(node, Integer.MAX_VALUE, cancelled);
+			return;
+		}
+
+		// Some children have been loaded already: Complete them one after another
+		for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) {
+			loadFully(c, cancelled);
+			if (cancelled.get()) return;
+		}
+		finishLoadFully(node);
+	}
+
+	/**
+	 * Walks the file system tree below the node up to the given depth, and adds all entries
+	 * found. Folders which are walked completely are marked fully loaded, and their sizes
+	 * are aggregated.
+	 *
+	 * @param node
+	 * @param maxDepth
+	 * @param cancelled can be null
+	 * @throws Throwable
+	 */
+	private void walk(final int node, final int maxDepth, final AtomicBoolean cancelled) throws Throwable {
+		final Path root = getFile(node).toPath();
+
+		Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth, new SimpleFileVisitor<Path>() {
+			/**
+			 * The folder node currently being walked
+			 */
+			private int current = NONE;
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (cancelled != null && cancelled.get()) return FileVisitResult.TERMINATE;
+
+				if (current == NONE) {
+					current = node;
+				} else {
+					FileAttributes a = new FileAttributes(dir, attrs);
+					if (!loadHiddenFiles && a.isHidden()) return FileVisitResult.SKIP_SUBTREE;
+					current = addNode(current, dir.getFileName().toString(), true, 0, a.getLastModified());
+				}
+				flags[current] |= FLAG_CHILDREN_LOADED;
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				FileAttributes a = new FileAttributes(file, attrs);
+				if (!loadHiddenFiles && a.isHidden()) return FileVisitResult.CONTINUE;
+
+				// Folders at max. depth are passed here, too
+				addNode(current, file.getFileName().toString(), a.isDirectory(), a.getSize(), a.getLastModified());
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+				// Not readable: The entry is added anyway (folders stay empty)
+				int failed = node;
+				if (current != NONE) {
+					Path name = file.getFileName();
+					if (!loadHiddenFiles && name != null && name.toString().startsWith(".")) return FileVisitResult.CONTINUE; //$NON-NLS-1$
+					boolean directory = Files.isDirectory(file);
+					failed = addNode(current, name.toString(), directory, 0, 0);
+					if (!directory) return FileVisitResult.CONTINUE;
+				}
+				flags[failed] |= FLAG_CHILDREN_LOADED;
+				if (maxDepth > 1) finishLoadFully(failed);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				if (maxDepth > 1) finishLoadFully(current);
+				current = parents[current];
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Marks the node as fully loaded and aggregates the sizes and counts of the
+	 * children, which have to be fully loaded already.
+	 *
+	 * @param node
+	 */
+	private void finishLoadFully(int node) {
+		long size = 0;
+		int files = 0;
+		int folders = 1;
+		for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) {
+			size += sizes[c];
+			files += numOfFiles[c];
+			folders += numOfFolders[c];
+		}
+		sizes[node] = size;
+		numOfFiles[node] = files;
+		numOfFolders[node] = folders;
+		flags[node] |= FLAG_LOADED_FULLY;
+	}
+
+	/**
+	 * Returns the id of the root node
+	 *
+	 * @return
+	 */
+	public int getRoot() {
+		return 0;
+	}
+
+	/**
+	 * Returns the number of nodes
+	 *
+	 * @return
+	 */
+	public int getNodeCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the parent id, or NONE for the root
+	 *
+	 * @param node
+	 * @return
+	 */
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Returns the id of the first child, or NONE.
+	 *
+	 * @param node
+	 * @return
+	 */
+	public int getFirstChild(int node) {
+		return firstChildren[node];
+	}
+
+	/**
+	 * Returns the id of the next child of the same parent, or NONE.
+	 *
+	 * @param node
+	 * @return
+	 */
+	public int getNextSibling(int node) {
+		return nextSiblings[node];
+	}
+
+	/**
+	 * Returns the ids of all children of the node
+	 *
+	 * @param node
+	 * @return
+	 */
+	public int[] getChildren(int node) {
+		int num = 0;
+		for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) num++;
+
+		int[] ret = new int[num];
+		for (int c = firstChildren[node]; c != NONE; c = nextSiblings[c]) ret[--num] = c;
+		return ret;
+	}
+
+	/**
+	 * Returns the file name of the node (for the root, this is the absolute path)
+	 *
+	 * @param node
+	 * @return
+	 */
+	public String getName(int node) {
+		return names[node];
+	}
+
+	/**
+	 * Returns the (lower case) extension of a file node, or null for folders
+	 *
+	 * @param node
+	 * @return
+	 */
+	public String getExtension(int node) {
+		return (extensions[node] == NONE) ? null : extensionList.get(extensions[node]);
+	}
+
+	/**
+	 * Returns the absolute path of the node (built on each call)
+	 *
+	 * @param node
+	 * @return
+	 */
+	public String getPath(int node) {
+		if (parents[node] == NONE) return names[node];
+
+		StringBuilder ret = new StringBuilder(names[node]);
+		for (int p = parents[node]; p != NONE; p = parents[p]) {
+			ret.insert(0, File.separatorChar);
+			ret.insert(0, names[p]);
+		}
+		return ret.toString();
+	}
+
+	/**
+	 * Returns a new File instance for the node
+	 *
+	 * @param node
+	 * @return
+	 */
+	public File getFile(int node) {
+		return new File(getPath(node));
+	}
+
+	/**
+	 * Is the node a folder?
+	 *
+	 * @param node
+	 * @return
+	 */
+	public boolean isDirectory(int node) {
+		return (flags[node] & FLAG_DIRECTORY) != 0;
+	}
+
+	/**
+	 * Is the tree below the node fully loaded, including sizes and counts?
+	 *
+	 * @param node
+	 * @return
+	 */
+	public boolean isFullyLoaded(int node) {
+		return (flags[node] & FLAG_LOADED_FULLY) != 0;
+	}
+
+	/**
+	 * Returns the size of the node (folders: overall size of all contents), or -1
+	 * if not fully loaded.
+	 *
+	 * @param node
+	 * @return
+	 */
+	public long getSize(int node) {
+		return sizes[node];
+	}
+
+	/**
+	 * Returns the number of files below the node, or -1 if not fully loaded.
+	 *
+	 * @param node
+	 * @return
+	 */
+	public long getNumOfFiles(int node) {
+		return numOfFiles[node];
+	}
+
+	/**
+	 * Returns the number of folders below the node (including itself), or -1
+	 * if not fully loaded.
+	 *
+	 * @param node
+	 * @return
+	 */
+	public long getNumOfFolders(int node) {
+		return numOfFolders[node];
+	}
+
+	/**
+	 * Returns the last modification time of the node in milliseconds
+	 *
+	 * @param node
+	 * @return
+	 */
+	public long getLastModified(int node) {
+		return lastModified[node];
+	}
+}
@@ -0,0 +1,258 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import main.Main;
+import main.Messages;
+
+/**
+ * Background queue for loading folders fully (deep sizes). The folders are loaded one after
+ * the other in a separate thread, in the order they have been added, except for the ones
+ * currently prioritized (for example the rows visible in a table), which are loaded first.
+ *
+ * The listener is notified on the EDT. If several folders are loaded before the EDT gets
+ * to it, they are delivered in one call.
+ *
+ * @author tweber
+ *
+ */
+public class DeepLoadQueue implements Runnable {
+
+	/**
+	 * Listener interface for loaded folders. All calls are made on the EDT.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * The given folders have been loaded fully
+		 *
+		 * @param entries
+		 * @throws Throwable
+		 */
+		public void loaded(List<DirEntry> entries) throws Throwable;
+	}
+
+	/**
+	 * Folders to load, in order
+	 */
+	private LinkedList<DirEntry> queue = new LinkedList<DirEntry>();
+
+	/**
+	 * Prioritized folders, loaded before the rest of the queue
+	 */
+	private LinkedList<DirEntry> priority = new LinkedList<DirEntry>();
+
+	/**
+	 * All folders not loaded yet (the ones in priority are also in the queue)
+	 */
+	private Set<DirEntry> queued = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+
+	/**
+	 * Queued folders which are only loaded if they are in the scan index (see addIndexed())
+	 */
+	private Set<DirEntry> indexedOnly = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+
+	/**
+	 * Loaded folders, not yet delivered to the listener
+	 */
+	private List<DirEntry> loaded = new ArrayList<DirEntry>();
+
+	/**
+	 * Loader thread (started on first call of add())
+	 */
+	private Thread thread = null;
+
+	/**
+	 * Listener
+	 */
+	private Listener listener;
+
+	public DeepLoadQueue(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Add the folders which are not fully loaded yet to the end of the queue
+	 *
+	 * @param entries
+	 * @throws Throwable
+	 */
+	public synchronized void add(List<? extends DirEntry> entries) throws Throwable {
+		for (DirEntry e : entries) {
+			indexedOnly.remove(e);
+			if (e.isDirectory() && !e.isFullyLoaded() && queued.add(e)) queue.add(e);
+		}
+		start();
+	}
+
+	/**
+	 * Add the folders which are not fully loaded yet to the end of the queue, but only load
+	 * the ones which are in the scan index, so mainly their modification dates are checked 
+	 * (see ScanIndex). The index is looked up by the loader thread.
+	 *
+	 * @param entries
+	 * @throws Throwable
+	 */
+	public synchronized void addIndexed(List<? extends DirEntry> entries) throws Throwable {
+		for (DirEntry e : entries) {
+			if (e.isDirectory() && !e.isFullyLoaded() && queued.add(e)) {
+				queue.add(e);
+				indexedOnly.add(e);
+			}
+		}
+		start();
+	}
+
+	/**
+	 * Wake up the loader thread, start it if not running yet
+	 *
+	 */
+	private void start() {
+		if (thread == null) {
+			thread = new Thread(this, "DeepLoadQueue"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Load the given folders first, in the given order, if they are in the queue. This
+	 * replaces the folders prioritized before.
+	 *
+	 * @param entries
+	 */
+	public synchronized void prioritize(List<? extends DirEntry> entries) {
+		priority.clear();
+		for (DirEntry e : entries) {
+			if (queued.contains(e)) priority.add(e);
+		}
+	}
+
+	/**
+	 * Remove all folders from the queue (the DirEntry trees are not valid anymore)
+	 *
+	 */
+	public synchronized void clear() {
+		queue.clear();
+		priority.clear();
+		queued.clear();
+		indexedOnly.clear();
+	}
+
+	/**
+	 * Returns the next folder to load, waits if the queue is empty.
+	 *
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private synchronized DirEntry next() throws InterruptedException {
+		while(true) {
+			DirEntry e = priority.poll();
+			if (e == null) e = queue.poll();
+			if (e == null) {
+				wait();
+				continue;
+			}
+			// Prioritized folders are still in the queue and skipped there
+			if (queued.remove(e)) return e;
+		}
+	}
+
+	/**
+	 * Is the folder only to be loaded if it is in the scan index (see addIndexed())?
+	 *
+	 * @param entry
+	 * @return
+	 */
+	private synchronized boolean isIndexedOnly(DirEntry entry) {
+		return indexedOnly.remove(entry);
+	}
+
+	/**
+	 * Loader thread: Loads the queued folders
+	 *
+	 */
+	@Override
+	public void run() {
+		try {
+			while(true) {
+				DirEntry e = next();
+				try {
+					// Warm start: Skip folders which are not indexed (the index may be loaded here first)
+					if (isIndexedOnly(e) && !Main.getScanIndex().contains(e)) continue;
+					
+					if (!e.isFullyLoaded()) e.loadFullyParallel();
+					deliver(e);
+
+					synchronized(this) {
+						// Remember the deep data when the queue is done
+						if (!queued.isEmpty()) continue;
+					}
+					Main.getScanIndex().store();
+
+				} catch (InterruptedException t) {
+					throw t;
+				} catch (Throwable t) {
+					// Just this folder failed: Report it and go on with the next one
+					report(e, t);
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		}
+	}
+
+	/**
+	 * Reports a folder which could not be loaded on the console
+	 *
+	 * @param entry
+	 * @param t
+	 */
+	private void report(DirEntry entry, Throwable t) {
+		try {
+			System.out.println(Messages.getString("Msg_SizeLoadFailed", entry.getAbsolutePath(), t)); //$NON-NLS-1$
+			
+		} catch (Throwable e) {
+			Main.handleThrowable(e);
+		}
+	}
+
+	/**
+	 * Notify the listener on the EDT. Only one notification is pending at a time, which
+	 * takes all folders loaded until then.
+	 *
+	 * @param entry
+	 */
+	private void deliver(DirEntry entry) {
+		synchronized(this) {
+			loaded.add(entry);
+			if (loaded.size() > 1) return;
+		}
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<DirEntry> entries;
+					synchronized(DeepLoadQueue.this) {
+						entries = loaded;
+						loaded = new ArrayList<DirEntry>();
+					}
+					listener.loaded(entries);
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+}
@@ -3,12 +3,13 @@ package model;
 import main.*;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.google.common.escape.Escaper;
 import com.google.common.escape.Escapers;
@@ -19,6 +20,23 @@ import com.google.common.escape.Escapers;
  * folder sizes (which are -1 if not loaded).
  * Also, the instance can be loaded gradually. A later call to loadFully will then complete the data anyway.
  * 
+ * Memory model: The tree is shared by the background scans (workers, fork/join pool) and the 
+ * EDT, which renders it and patches it (see DirWatcher, revalidate()). Readers never lock:
+ * <ul>
+ * <li>The children list is published once, atomically (see getChildren()): If two threads list 
+ *     a folder at the same time, only the first result is kept, and both get the same instances. 
+ *     Published lists are never modified, changes (only done on the EDT) publish a new copy. So 
+ *     a reader iterates a consistent snapshot, without ConcurrentModificationException.</li>
+ * <li>The deep data (sizes, counts) is volatile, so longs can not tear. Writers synchronize on 
+ *     the entry and set loadedFully last, so whoever sees a fully loaded folder also sees its 
+ *     sizes and counts. A reset clears loadedFully first.</li>
+ * <li>The buffers (largest child, readable size, depth) may be calculated twice by concurrent 
+ *     readers, with the same result.</li>
+ * <li>Parent and the hidden files flag are final, the attributes snapshots are immutable.</li>
+ * </ul>
+ * The index data used while loading fully (indexEntry, indexFolders) is only accessed by the 
+ * scan loading the folder (see ScanRegistry).
+ * 
  * @author tweber
  *
  */
@@ -30,81 +48,119 @@ public class DirEntry extends File {
 	 */
 	private static final String TYPE_DIR = "DIR";
 	
+	/**
+	 * Atomic publication of the children list (see getChildren())
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<DirEntry, List> CHILDREN = AtomicReferenceFieldUpdater.newUpdater(DirEntry.class, List.class, "children"); //$NON-NLS-1$
+	
 	/**
 	 * Parent folder. Can be null if this is the root of the DirEntry tree.
 	 */
-	protected DirEntry parent = null;                    
+	protected final DirEntry parent;                    
 	
 	/**
-	 * Children of the folder. Null if this is a file.
+	 * Children of the folder. Null if this is a file, or not listed yet. Never modified 
+	 * once published, changes replace the list.
 	 */
-	protected List<DirEntry> children = null;           
+	protected volatile List<DirEntry> children = null;           
 	
 	/**
 	 * File size. For folders, this is set to -1 if not fully loaded (meaning that all exact sizes etc are calculated), 
 	 * if fully loaded, this shows the exact, overall size of all contents inside the folder.
 	 */
-	private long size = -1;                           
+	private volatile long size = -1;                           
 	
 	/**
 	 * Number of files (ignoring folders) inside this path. Set to -1 if not fully loaded.
 	 */
-	private long numOfFiles = -1;                     
+	private volatile long numOfFiles = -1;                     
 	
 	/**
 	 * Number of folders inside this path. Set to -1 if not fully loaded.
 	 */
-	private long numOfFolders = -1;                   
+	private volatile long numOfFolders = -1;                   
 	
 	/**
 	 * Is the child tree fully loaded (meaning that all exact sizes etc are calculated)?
+	 * Written after the sizes and counts.
 	 */
-	private boolean loadedFully = false;              
+	private volatile boolean loadedFully = false;              
 	
 	/**
 	 * Load hidden files?
 	 */
-	private boolean loadHiddenFiles = false;          
+	private final boolean loadHiddenFiles;          
 	
 	/**
-	 * Escaper tool for shell operations
+	 * Escaper tool for shell operations (shared by all instances)
 	 */
-	private Escaper escaper;
+	private static final Escaper escaper = createEscaper();
 	
 	/**
 	 * Buffer for largest child
 	 */
-	private DirEntry largestChild = null;
+	private volatile DirEntry largestChild = null;
 	
 	/**
 	 * Buffer for readable size
 	 */
-	private String readableSize = null;
+	private volatile String readableSize = null;
 	
 	/**
 	 * Depth buffer
 	 */
-	private int depth = -1;
+	private volatile int depth = -1;
+	
+	/**
+	 * Attributes snapshot of the file, read when the parent folder has been listed, or 
+	 * lazily on first access. All attribute getters read from here (see getAttributes()).
+	 * Volatile, as it may be read in the background by AttributeLoader.
+	 */
+	private volatile FileAttributes attributes = null;
+	
+	/**
+	 * Index record used while loading fully, if the folder is unchanged since it has been 
+	 * indexed (see getLoadChildren()). 
+	 */
+	private ScanIndex.Entry indexEntry = null;
+	
+	/**
+	 * Sub folders taken from the index record while loading fully (the children are 
+	 * not listed then).
+	 */
+	private List<DirEntry> indexFolders = null;
+	
+	/**
+	 * Scan key of the tree root (see getScanKey()), determined on first use
+	 */
+	private volatile String scanKey = null;
 	
 	public DirEntry(String name) throws Throwable {
-		super(name);
-		
-		// Get escaper for shell file names
-		final Escapers.Builder builder = Escapers.builder();
-        builder.addEscape('\'', "'\"'\"'"); //$NON-NLS-1$
-        escaper = builder.build();
+		this(name, null);
 	}
 
 	public DirEntry(String name, DirEntry parent) throws Throwable {
-		this(name);
-		this.parent = parent;
+		this(name, parent, false);
 	}
 
 	public DirEntry(String name, DirEntry parent, boolean loadHiddenFiles) throws Throwable {
-		this(name, parent);
+		super(name);
+		this.parent = parent;
 		this.loadHiddenFiles = loadHiddenFiles;
 	}
 
+	/**
+	 * Get escaper for shell file names
+	 * 
+	 * @return
+	 */
+	private static Escaper createEscaper() {
+		final Escapers.Builder builder = Escapers.builder();
+        builder.addEscape('\'', "'\"'\"'"); //$NON-NLS-1$
+        return builder.build();
+	}
+
 	/**
 	 * Load the children of this folder, if it is a folder. This does not load accurate 
 	 * folder sizes or deep folder structures! 
@@ -112,23 +168,493 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public List<DirEntry> getChildren() throws Throwable {
-		if (children != null) {
-			return children;
+		return getChildren(null);
+	}
+	
+	/**
+	 * Load the children of this folder like getChildren(), passing them to the given listener
+	 * in chunks while listing (see DirScanner). If the children are loaded already, they are 
+	 * passed in one chunk.
+	 * 
+	 * The listed children are published atomically: If another thread has published its 
+	 * listing in the meantime, that one is returned, and the own one is dropped.
+	 * 
+	 * @param listener
+	 * @return
+	 */
+	public List<DirEntry> getChildren(DirScanner.Listener listener) throws Throwable {
+		List<DirEntry> c = children;
+		if (c != null) {
+			if (listener != null && !c.isEmpty()) listener.listed(new ArrayList<DirEntry>(c));
+			return c;
 		}
 		
 		if (!isDirectory()) {
 			return null;
 		}
 		
-		File[] childrenFiles = Utils.getFileSystemView().getFiles(this, !loadHiddenFiles);
+		List<DirEntry> listed = DirScanner.scanChildren(this, loadHiddenFiles, listener);
 		
-		children = new ArrayList<DirEntry>();
-		for(File file : childrenFiles) {
-			children.add(createChild(file));
+		if (loadedFully) {
+			// Deep data has been taken from the scan index: Also restore it for the sub folders
+			for(DirEntry l : listed) {
+				if (l.isDirectory()) l.restoreDeepData();
+			}
 		}
+		
+		if (!CHILDREN.compareAndSet(this, null, listed)) return children;
+		return listed;
+	}
+	
+	/**
+	 * Returns the children if they have been listed already, or null.
+	 * 
+	 * @return
+	 */
+	public List<DirEntry> getLoadedChildren() {
 		return children;
 	}
 	
+	/**
+	 * Are hidden files loaded?
+	 * 
+	 * @return
+	 */
+	public boolean isLoadingHiddenFiles() {
+		return loadHiddenFiles;
+	}
+	
+	/**
+	 * Returns the index of the (loaded) child with the given name, or -1.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public int getChildIndex(String name) {
+		List<DirEntry> c = children;
+		if (c == null) return -1;
+		for (int i = 0; i < c.size(); i++) {
+			if (c.get(i).getName().equals(name)) return i;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Adds a new child (see DirWatcher). If this folder is fully loaded, the child has to 
+	 * be fully loaded, too: Its deep data is added to this folder and all parents then.
+	 * Has to be called on the EDT, the children list is replaced by an extended copy.
+	 * 
+	 * @param child
+	 * @return index of the new child, or -1 if the children are not loaded or the child exists already
+	 * @throws Throwable
+	 */
+	public int addChild(DirEntry child) throws Throwable {
+		List<DirEntry> c = children;
+		if (c == null || getChildIndex(child.getName()) >= 0) return -1;
+		
+		List<DirEntry> added = new ArrayList<DirEntry>(c.size() + 1);
+		added.addAll(c);
+		added.add(child);
+		children = added;
+		
+		if (child.isFullyLoaded()) {
+			addDeepData(child.getSize(), child.getNumOfFiles(), child.getNumOfFolders());
+		} else {
+			invalidateDeepData();
+		}
+		return added.size() - 1;
+	}
+	
+	/**
+	 * Removes a child (see DirWatcher). Its deep data is subtracted from this folder and all parents.
+	 * Has to be called on the EDT, the children list is replaced by a reduced copy.
+	 * 
+	 * @param index
+	 * @throws Throwable
+	 */
+	public void removeChild(int index) throws Throwable {
+		List<DirEntry> removed = new ArrayList<DirEntry>(children);
+		DirEntry child = removed.remove(index);
+		children = removed;
+		
+		if (child.isFullyLoaded()) {
+			addDeepData(-child.getSize(), -child.getNumOfFiles(), -child.getNumOfFolders());
+		} else {
+			invalidateDeepData();
+		}
+	}
+	
+	/**
+	 * Sets new attributes for a child (see DirWatcher). For files, the size difference is 
+	 * added to this folder and all parents.
+	 * 
+	 * @param index
+	 * @param attributes
+	 * @return true if the attributes have changed
+	 * @throws Throwable
+	 */
+	public boolean updateChild(int index, FileAttributes attributes) throws Throwable {
+		DirEntry child = children.get(index);
+		FileAttributes old = child.getAttributes();
+		if (!old.differsFrom(attributes) || old.isDirectory() != attributes.isDirectory()) return false;
+		
+		// Old size from the old attributes, if it has not been taken yet
+		long oldSize = child.isDirectory() ? -1 : child.getSize();
+		child.attributes = attributes;
+		if (!child.isDirectory()) {
+			long diff;
+			synchronized(child) {
+				diff = attributes.getSize() - oldSize;
+				child.size = attributes.getSize();
+				child.readableSize = null;
+			}
+			addDeepData(diff, 0, 0);
+		}
+		return true;
+	}
+	
+	/**
+	 * Add the given differences to the deep data of this folder and all its parents, 
+	 * as far as it is loaded. Used to patch the tree instead of loading it again.
+	 * Each entry is updated under its own lock, so concurrent updates are not lost.
+	 * 
+	 * @param size
+	 * @param files
+	 * @param folders
+	 */
+	private void addDeepData(long size, long files, long folders) {
+		DirEntry e = this;
+		while (e != null) {
+			synchronized(e) {
+				if (e.size > -1) e.size += size;
+				if (e.numOfFiles > -1) e.numOfFiles += files;
+				if (e.numOfFolders > -1) e.numOfFolders += folders;
+				e.largestChild = null;
+				e.readableSize = null;
+			}
+			e.deepDataChanged();
+			e = e.parent;
+		}
+		
+		// The files of this folder have changed: It has to be scanned again next time
+		if (!loadHiddenFiles) Main.getScanIndex().remove(this);
+	}
+	
+	/**
+	 * Returns the children which have to be loaded fully by loadFully(). If the children 
+	 * have not been listed yet, and the folder is unchanged since it has been indexed 
+	 * (see ScanIndex), this only returns the sub folders from the index, so the folder 
+	 * does not have to be listed.
+	 * 
+	 * @return
+	 * @throws Throwable
+	 */
+	List<DirEntry> getLoadChildren() throws Throwable {
+		if (children == null && !loadHiddenFiles) {
+			ScanIndex.Entry e = Main.getScanIndex().getUnchanged(this);
+			if (e != null) {
+				List<DirEntry> folders = new ArrayList<DirEntry>(e.getFolders().length);
+				for(String name : e.getFolders()) {
+					DirEntry f = createChild(new File(this, name));
+					if (f.isDirectory()) folders.add(f);
+				}
+				indexEntry = e;
+				indexFolders = folders;
+				return folders;
+			}
+		}
+		return getChildren();
+	}
+	
+	/**
+	 * Take the deep data of this folder from the scan index, if it has been validated in 
+	 * this session.
+	 * 
+	 */
+	private void restoreDeepData() {
+		if (loadHiddenFiles) return;
+		
+		ScanIndex.Entry e = Main.getScanIndex().getValidated(this);
+		if (e == null) return;
+		
+		setDeepData(e.getSize(), e.getNumOfFiles(), e.getNumOfFolders());
+	}
+	
+	/**
+	 * Set the deep data (sizes, counts) of this entry and mark it as fully loaded. The flag 
+	 * is set last, so the data is complete for anyone who sees it. 
+	 * 
+	 * @param size
+	 * @param files
+	 * @param folders
+	 */
+	private synchronized void setDeepData(long size, long files, long folders) {
+		this.size = size;
+		this.numOfFiles = files;
+		this.numOfFolders = folders;
+		largestChild = null;
+		readableSize = null;
+		loadedFully = true;
+	}
+	
+	/**
+	 * Set the attributes snapshot (see DirScanner)
+	 * 
+	 * @param attributes
+	 */
+	void setAttributes(FileAttributes attributes) {
+		this.attributes = attributes;
+	}
+	
+	/**
+	 * Returns the attributes snapshot of the file. If it has not been read while 
+	 * listing the parent folder, it is read now.
+	 * 
+	 * @return
+	 */
+	public FileAttributes getAttributes() {
+		if (attributes == null) {
+			attributes = FileAttributes.read(this);
+		}
+		return attributes;
+	}
+	
+	/**
+	 * Returns the attributes snapshot if it has been read already, or null. Does not 
+	 * access the file system.
+	 * 
+	 * @return
+	 */
+	public FileAttributes getLoadedAttributes() {
+		return attributes;
+	}
+	
+	/**
+	 * Have the attributes, including the access flags, been read already?
+	 * 
+	 * @return
+	 */
+	public boolean isAttributesLoaded() {
+		FileAttributes a = attributes;
+		return a != null && a.isAccessLoaded();
+	}
+	
+	/**
+	 * Read the attributes, including the access flags, if not done yet (see AttributeLoader)
+	 * 
+	 */
+	public void loadAttributes() {
+		getAttributes().canRead(this);
+	}
+	
+	/**
+	 * Is this a folder? (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public boolean isDirectory() {
+		return getAttributes().isDirectory();
+	}
+	
+	/**
+	 * File length (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public long length() {
+		return getAttributes().getSize();
+	}
+	
+	/**
+	 * Last modification time (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public long lastModified() {
+		return getAttributes().getLastModified();
+	}
+	
+	/**
+	 * Read access (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public boolean canRead() {
+		return getAttributes().canRead(this);
+	}
+
+	/**
+	 * Write access (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public boolean canWrite() {
+		return getAttributes().canWrite(this);
+	}
+
+	/**
+	 * Execution permission (from the attributes snapshot)
+	 * 
+	 */
+	@Override
+	public boolean canExecute() {
+		return getAttributes().canExecute(this);
+	}
+	
+	/**
+	 * Drops the attributes snapshot of this entry, it will be read again on next access. 
+	 * Also, the deep data (sizes, counts) of this entry and all its parents are reset, 
+	 * as they are not valid anymore if this entry has changed.
+	 * 
+	 */
+	public void invalidate() {
+		attributes = null;
+		invalidateDeepData();
+	}
+	
+	/**
+	 * Reads the attributes of this entry again. For folders whose children have been loaded 
+	 * already, the children are listed again: Existing child instances are kept (with their 
+	 * deep data, if unchanged), new ones are added and deleted ones are removed. If anything 
+	 * has changed, the deep data of this entry and its parents is reset. 
+	 * 
+	 * @return true if anything has changed
+	 * @throws Throwable
+	 */
+	public boolean revalidate() throws Throwable {
+		FileAttributes old = attributes;
+		FileAttributes a = FileAttributes.read(this);
+		attributes = a;
+		boolean changed = (old == null || old.differsFrom(a)); 
+		
+		if (children != null) {
+			if (!isDirectory()) {
+				children = null;
+				changed = true;
+			} else {
+				changed = mergeChildren(DirScanner.scanChildren(this, loadHiddenFiles)) || changed;
+			}
+		}
+
+		if (changed) {
+			resetDeepData();
+			if (parent != null) parent.invalidateDeepData();
+			
+			// Files might have changed without changing the modification date of the folder
+			if (!loadHiddenFiles) Main.getScanIndex().remove(this);
+		}
+		return changed;
+	}
+	
+	/**
+	 * Merge a new listing of this folder into the current children list (see revalidate()).
+	 * The merged list replaces the current one.
+	 * 
+	 * @param listed
+	 * @return true if the listing differs from the current children
+	 */
+	private boolean mergeChildren(List<DirEntry> listed) throws Throwable {
+		List<DirEntry> old = children;
+		Map<String, DirEntry> current = new HashMap<String, DirEntry>();
+		for(DirEntry c : old) {
+			current.put(c.getName(), c);
+		}
+		
+		boolean changed = (listed.size() != old.size());
+		List<DirEntry> merged = new ArrayList<DirEntry>(listed.size());
+		for(DirEntry l : listed) {
+			DirEntry c = current.get(l.getName());
+			if (c != null && c.isDirectory() == l.isDirectory()) {
+				// Keep the existing instance, with its new attributes
+				FileAttributes a = l.getAttributes();
+				if (a.differsFrom(c.getAttributes())) {
+					c.resetDeepData();
+					changed = true;
+				}
+				c.attributes = a;
+				merged.add(c);
+			} else {
+				merged.add(l);
+				changed = true;
+			}
+		}
+		children = merged;
+		return changed;
+	}
+	
+	/**
+	 * Reset the deep data of this entry and all its parents
+	 * 
+	 */
+	private void invalidateDeepData() {
+		DirEntry e = this;
+		while (e != null) {
+			e.resetDeepData();
+			e = e.parent;
+		}
+	}
+
+	/**
+	 * Reset the deep data (sizes, counts) of this entry. The fully loaded flag is cleared 
+	 * first, so nobody takes the old data for valid in between.
+	 * 
+	 */
+	private void resetDeepData() {
+		synchronized(this) {
+			loadedFully = false;
+			size = -1;
+			numOfFiles = -1;
+			numOfFolders = -1;
+			largestChild = null;
+			readableSize = null;
+		}
+		deepDataChanged();
+	}
+	
+	/**
+	 * Called when the deep data (sizes, counts) of this entry has been loaded or has changed.
+	 * Does nothing here (see ProjectDirEntry).
+	 * 
+	 */
+	protected void deepDataChanged() {
+	}
+	
+	/**
+	 * Returns the deep size of a folder if it is fully loaded, -1 if not. Other than getSize(), this
+	 * never calculates anything (see SizeAggregate).
+	 * 
+	 * @return
+	 */
+	long getDeepSize() {
+		if (!loadedFully) return -1;
+		return size;
+	}
+
+	/**
+	 * Returns the key of this folder in the registry of running scans (see ScanRegistry): 
+	 * The canonical path of the root of the DirEntry tree, extended by the names of the 
+	 * folders below it, so only the root has to be resolved. Trees including hidden files 
+	 * have their own keys, as their sizes differ.
+	 * 
+	 * @return
+	 */
+	String getScanKey() {
+		if (parent != null) {
+			String p = parent.getScanKey();
+			return p.endsWith(separator) ? p + getName() : p + separator + getName();
+		}
+		if (scanKey == null) {
+			String path;
+			try {
+				path = getCanonicalPath();
+			} catch (Throwable t) {
+				path = getAbsolutePath();
+			}
+			scanKey = (loadHiddenFiles ? "hidden:" : "") + path; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return scanKey;
+	}
+
 	/**
 	 * Create a child instance
 	 * 
@@ -151,7 +677,7 @@ public class DirEntry extends File {
 		if (isFullyLoaded()) return;
 		
 		if (isDirectory()) {
-			List<DirEntry> ch = getChildren();
+			List<DirEntry> ch = getLoadChildren();
 			
 			// Recurse
 			for (DirEntry child : ch) {
@@ -159,10 +685,67 @@ public class DirEntry extends File {
 			}
 		}
 			
-		getSize();
-		getNumOfFiles();
+		finishLoadFully();
+	}
+
+	/**
+	 * Same as loadFully(), but the sub folders are loaded in parallel by the fork/join 
+	 * pool (see LoadFullyTask). CAUTION: This may take a while for big folders, too!
+	 * 
+	 * @throws Throwable
+	 */
+	public void loadFullyParallel() throws Throwable {
+		if (isFullyLoaded()) return;
 		
-		loadedFully = true;
+		Utils.getForkJoinPool().invoke(new LoadFullyTask(this));
+	}
+	
+	/**
+	 * Marks the instance as fully loaded and aggregates the sizes and counts of the 
+	 * children, which have to be fully loaded already. The data is published in one 
+	 * step (see setDeepData()).
+	 * 
+	 * @throws Throwable
+	 */
+	void finishLoadFully() throws Throwable {
+		if (indexFolders != null) {
+			// Unchanged folder: Own files from the index, plus the (checked) sub folders
+			long s = indexEntry.getOwnSize();
+			long files = indexEntry.getOwnFiles();
+			long folders = 1;
+			for(DirEntry f : indexFolders) {
+				s += f.getSize();
+				files += f.getNumOfFiles();
+				folders += f.getNumOfFolders();
+			}
+			setDeepData(s, files, folders);
+			
+			Main.getScanIndex().put(this, indexEntry.getOwnSize(), indexEntry.getOwnFiles(), indexEntry.getFolders());
+			indexEntry = null;
+			indexFolders = null;
+			deepDataChanged();
+			return;
+		}
+		
+		if (!isDirectory()) {
+			setDeepData(length(), 1, 0);
+			deepDataChanged();
+			return;
+		}
+		
+		List<DirEntry> c = children;
+		long s = 0;
+		long files = 0;
+		long folders = 1;
+		for(DirEntry e : c) {
+			s += e.getSize();
+			files += e.getNumOfFiles();
+			folders += e.getNumOfFolders();
+		}
+		setDeepData(s, files, folders);
+		
+		if (!loadHiddenFiles) Main.getScanIndex().put(this, c);
+		deepDataChanged();
 	}
 
 	/**
@@ -187,30 +770,19 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public long getSize() throws Throwable {
-		if (size > -1) {
+		long s = size;
+		if (s > -1) {
 			// Already calculated
-			return size;
+			return s;
 		}
 		
-		// Size determination...
-		if (isDirectory()) {
-			// Folder: Recursively add all children, or -1 if the instance is not fully loaded.
-			if (!isFullyLoaded()) {
-				return -1;
-			}
-			
-			long s = 0;
-			for(DirEntry e:children) {
-				s += e.getSize();
-			}
-			
-			size = s;
-		} else {
-			// File: Directly determine the file size
-			size = length();
-		}
+		// Folder: Only known if fully loaded (see finishLoadFully())
+		if (isDirectory()) return -1;
 		
-		return size;
+		// File: Directly determine the file size
+		s = length();
+		size = s;
+		return s;
 	}
 	
 	/**
@@ -219,28 +791,14 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public long getNumOfFiles() throws Throwable {
-		if (numOfFiles > -1) {
+		long n = numOfFiles;
+		if (n > -1) {
 			// Already calculated
-			return numOfFiles;
-		}
-		
-		if (isDirectory()) {
-			// Folder: Recursively add all children, or -1 if the instance is not fully loaded.
-			if (!isFullyLoaded()) {
-				return -1;
-			}
-			
-			long s = 0;
-			for(DirEntry e:children) {
-				s += e.getNumOfFiles();
-			}
-			
-			numOfFiles = s;
-		} else {
-			numOfFiles = 1;
+			return n;
 		}
 		
-		return numOfFiles;
+		// Folder: Only known if fully loaded (see finishLoadFully())
+		return isDirectory() ? -1 : 1;
 	}
 	
 	/**
@@ -249,28 +807,14 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public long getNumOfFolders() throws Throwable {
-		if (numOfFolders > -1) {
+		long n = numOfFolders;
+		if (n > -1) {
 			// Already calculated
-			return numOfFolders;
-		}
-		
-		if (isDirectory()) {
-			// Folder: Recursively add all children, or -1 if the instance is not fully loaded.
-			if (!isFullyLoaded()) {
-				return -1;
-			}
-			
-			long s = 0;
-			for(DirEntry e:children) {
-				s += e.getNumOfFolders();
-			}
-			
-			numOfFolders = s + 1;
-		} else {
-			numOfFolders = 0;
+			return n;
 		}
 		
-		return numOfFolders;
+		// Folder: Only known if fully loaded (see finishLoadFully())
+		return isDirectory() ? -1 : 0;
 	}
 	
 	/**
@@ -279,9 +823,11 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public int getDepth() throws Throwable {
-		if (depth > -1) return depth;
-		depth = getDepth(0); 
-		return depth;
+		int d = depth;
+		if (d > -1) return d;
+		d = getDepth(0);
+		depth = d;
+		return d;
 	}
 	
 	/**
@@ -408,16 +954,18 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public String getReadableSize() throws Throwable {
-		if (readableSize != null) return readableSize;
+		String r = readableSize;
+		if (r != null) return r;
 		
 		long s = getSize();
 	    if(s == 0) return "0 B"; //$NON-NLS-1$
 	    if(s < 0) return Messages.getString("DirEntry.NotLoaded");  //$NON-NLS-1$
 	    final String[] units = new String[] { "B", "KB", "MB", "GB", "TB", "PB", "EB" }; // used with 1000   //$NON-NLS-1$ 
 	    int digitGroups = (int) (Math.log10(s)/Math.log10(1000));
-	    readableSize = new DecimalFormat("#,##0.#").format(s/Math.pow(1000, digitGroups)) + " " + units[digitGroups]; //$NON-NLS-1$
+	    r = new DecimalFormat("#,##0.#").format(s/Math.pow(1000, digitGroups)) + " " + units[digitGroups]; //$NON-NLS-1$
+	    readableSize = r;
 	    
-	    return readableSize;
+	    return r;
 	}
 	
 	/**
@@ -437,20 +985,23 @@ public class DirEntry extends File {
 	 * @return
 	 */
 	public DirEntry getLargestChild() throws Throwable {
-		if (largestChild != null) return largestChild;
+		DirEntry l = largestChild;
+		if (l != null) return l;
 		
-		if (!isFullyLoaded() || children == null || children.size() == 0) return null;
+		List<DirEntry> c = children;
+		if (!isFullyLoaded() || c == null || c.size() == 0) return null;
 		
 		long max = 0;
 		DirEntry ret = null;
-		for(DirEntry child : children) {
-			if (child.getSize() >= max) {
-				max = child.getSize();
+		for(DirEntry child : c) {
+			long s = child.getSize();
+			if (s >= max) {
+				max = s;
 				ret = child;
 			}
 		}
 		largestChild = ret;
-		return largestChild;
+		return ret;
 	}
 	
 	/**
@@ -470,8 +1021,7 @@ public class DirEntry extends File {
 	 * @throws IOException
 	 */
 	public Date getCreationDate() throws Throwable {
-		BasicFileAttributes attrs = Files.readAttributes(this.toPath(), BasicFileAttributes.class);
-		return new Date(attrs.creationTime().toMillis());
+		return new Date(getAttributes().getCreationTime());
 	}
 	
 	/**
@@ -481,7 +1031,6 @@ public class DirEntry extends File {
 	 * @throws IOException
 	 */
 	public Date getLastModificationDate() throws Throwable {
-		BasicFileAttributes attrs = Files.readAttributes(this.toPath(), BasicFileAttributes.class);
-		return new Date(attrs.lastModifiedTime().toMillis());
+		return new Date(getAttributes().getLastModified());
 	}
 }
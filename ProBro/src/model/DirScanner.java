@@ -0,0 +1,183 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Lists folders by the java.nio.file directory streams. The attributes of all children are
+ * read while listing (on Windows, they even come with the directory listing itself), and
+ * are stored in the children instances. This results in roughly one stat call per file,
+ * instead of one for each of isDirectory(), length(), lastModified() etc.
+ *
+ * Huge folders can be listed in streaming mode: The children are passed to a listener in
+ * chunks while the listing continues, so they can be shown before it is finished. The first
+ * chunk is small, the following ones grow up to a max. size.
+ *
+ * @author tweber
+ *
+ */
+public class DirScanner {
+
+	/**
+	 * Listener interface for the streaming mode. The calls are made in the listing thread.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * The given children have been listed, in addition to the ones passed before
+		 *
+		 * @param chunk
+		 * @throws Throwable
+		 */
+		public void listed(List<DirEntry> chunk) throws Throwable;
+	}
+
+	/**
+	 * Size of the first chunk passed to the listener (about a screenful of rows)
+	 */
+	private static final int FIRST_CHUNK_SIZE = 50;
+
+	/**
+	 * Max. size of the chunks passed to the listener
+	 */
+	private static final int MAX_CHUNK_SIZE = 5000;
+
+	/**
+	 * Returns the children of the given folder, each one with its attributes already set.
+	 *
+	 * @param dir
+	 * @param loadHiddenFiles
+	 * @return
+	 * @throws Throwable
+	 */
+	public static List<DirEntry> scanChildren(final DirEntry dir, final boolean loadHiddenFiles) throws Throwable {
+		return scanChildren(dir, loadHiddenFiles, null);
+	}
+
+	/**
+	 * Returns the children of the given folder, each one with its attributes already set.
+	 * If a listener is given, the children are passed to it in chunks while listing.
+	 *
+	 * @param dir
+	 * @param loadHiddenFiles
+	 * @param listener (or null)
+	 * @return
+	 * @throws Throwable
+	 */
+	public static List<DirEntry> scanChildren(final DirEntry dir, final boolean loadHiddenFiles, final Listener listener) throws Throwable {
+		final Chunks ret = new Chunks(listener);
+		final Path root = dir.toPath();
+
+		// With a max. depth of 1, all children (also folders) are passed to visitFile()
+		Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				try {
+					FileAttributes a = new FileAttributes(file, attrs);
+					if (!loadHiddenFiles && a.isHidden()) return FileVisitResult.CONTINUE;
+
+					DirEntry child = dir.createChild(file.toFile());
+					child.setAttributes(a);
+					ret.add(child);
+					return FileVisitResult.CONTINUE;
+
+				} catch (IOException e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new IOException(t);
+				}
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+				// Folder can not be read: No children
+				if (file.equals(root)) return FileVisitResult.CONTINUE;
+
+				// The attributes of this child could not be read: Add it anyway, it
+				// will ask the file system directly then.
+				try {
+					Path name = file.getFileName();
+					if (!loadHiddenFiles && name != null && name.toString().startsWith(".")) return FileVisitResult.CONTINUE; //$NON-NLS-1$
+
+					ret.add(dir.createChild(file.toFile()));
+					return FileVisitResult.CONTINUE;
+
+				} catch (Throwable t) {
+					throw new IOException(t);
+				}
+			}
+		});
+
+		ret.flush();
+		return ret.children;
+	}
+
+	/**
+	 * Collects the children, and passes them to the listener (if any) in chunks as they are added
+	 *
+	 * @author tweber
+	 *
+	 */
+	private static class Chunks {
+
+		/**
+		 * Children listed so far
+		 */
+		private List<DirEntry> children = new ArrayList<DirEntry>();
+
+		/**
+		 * Listener, or null
+		 */
+		private Listener listener;
+
+		/**
+		 * Number of children passed to the listener
+		 */
+		private int passed = 0;
+
+		/**
+		 * Size of the next chunk
+		 */
+		private int chunkSize = FIRST_CHUNK_SIZE;
+
+		public Chunks(Listener listener) {
+			this.listener = listener;
+		}
+
+		/**
+		 * Add a listed child
+		 *
+		 * @param child
+		 * @throws Throwable
+		 */
+		void add(DirEntry child) throws Throwable {
+			children.add(child);
+			if (listener != null && children.size() - passed >= chunkSize) {
+				flush();
+				chunkSize = Math.min(chunkSize * 2, MAX_CHUNK_SIZE);
+			}
+		}
+
+		/**
+		 * Pass the children added since the last chunk to the listener
+		 *
+		 * @throws Throwable
+		 */
+		void flush() throws Throwable {
+			if (listener == null || passed == children.size()) return;
+			List<DirEntry> chunk = new ArrayList<DirEntry>(children.subList(passed, children.size()));
+			passed = children.size();
+			listener.listed(chunk);
+		}
+	}
+}
@@ -0,0 +1,470 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.SwingUtilities;
+
+import main.Main;
+import main.Messages;
+import main.Utils;
+
+/**
+ * Live mode: Watches folders by the file system's WatchService, and patches the
+ * DirEntry tree on changes. Created, deleted and modified entries are added, removed or
+ * updated in the children of their folder, and the deep data (sizes, counts) of all
+ * parents are adjusted by the difference, so no rescan is necessary.
+ *
+ * Folders are watched if their children are listed or their deep data is loaded (see
+ * watch()). Folders whose deep data has been taken from the scan index have not been 
+ * listed, they are listed when they are watched. Folders neither listed nor fully loaded
+ * are not watched, as there is nothing to patch. The file system is
+ * read in the watcher thread, the DirEntry tree is changed on the EDT only, where the
+ * listener is notified afterwards. New folders are loaded fully in the fork/join pool, each
+ * folder is watched before it is listed, so no change inside gets lost: Events arriving 
+ * while a new folder is loaded are processed after it has been added to the tree.
+ *
+ * Folders which can not be watched (for example when the limit of watches of the operating
+ * system is reached) are reported on the console, changes inside them are not shown live.
+ *
+ * @author tweber
+ *
+ */
+public class DirWatcher implements Runnable {
+
+	/**
+	 * Change types for Listener.childChanged()
+	 */
+	public static final int ADDED = 0;
+	public static final int REMOVED = 1;
+	public static final int CHANGED = 2;
+
+	/**
+	 * Listener interface for changes of the DirEntry tree. All calls are made on the EDT.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * A child of the folder has been added, removed or changed (see change types above).
+		 *
+		 * @param folder
+		 * @param child
+		 * @param index index of the child in the children list (for removed children: the former index)
+		 * @param change
+		 * @throws Throwable
+		 */
+		public void childChanged(DirEntry folder, DirEntry child, int index, int change) throws Throwable;
+
+		/**
+		 * The folder might have changed in an unknown way (too many events), it should be refreshed.
+		 *
+		 * @param folder
+		 * @throws Throwable
+		 */
+		public void folderChanged(DirEntry folder) throws Throwable;
+	}
+
+	/**
+	 * Watch service (created on first call of watch())
+	 */
+	private WatchService service = null;
+
+	/**
+	 * Watched folders
+	 */
+	private Map<WatchKey, DirEntry> folders = new HashMap<WatchKey, DirEntry>();
+
+	/**
+	 * New folders being loaded, with the events which have arrived for them meanwhile
+	 */
+	private Map<DirEntry, List<WatchEvent<?>>> loading = new IdentityHashMap<DirEntry, List<WatchEvent<?>>>();
+
+	/**
+	 * Incremented by clear(), so registrations still running for the old trees are dropped
+	 */
+	private int generation = 0;
+
+	/**
+	 * Listener for changes
+	 */
+	private Listener listener;
+
+	public DirWatcher(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Watch the given folder and all its sub folders which are listed or fully loaded (see
+	 * register()). The watcher thread is started on first call. The folders are registered
+	 * in the fork/join pool, as walking the tree can take a while.
+	 *
+	 * @param folder
+	 * @throws Throwable
+	 */
+	public void watch(final DirEntry folder) throws Throwable {
+		final int gen;
+		synchronized(this) {
+			if (service == null) {
+				service = FileSystems.getDefault().newWatchService();
+
+				Thread t = new Thread(this, "DirWatcher"); //$NON-NLS-1$
+				t.setDaemon(true);
+				t.start();
+			}
+			gen = generation;
+		}
+		
+		Utils.getForkJoinPool().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<DirEntry> unwatched = new ArrayList<DirEntry>();
+					register(folder, gen, unwatched);
+					reportUnwatched(folder, unwatched);
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stop watching all folders (the DirEntry trees are not valid anymore)
+	 *
+	 */
+	public synchronized void clear() {
+		for (WatchKey key : folders.keySet()) {
+			key.cancel();
+		}
+		folders.clear();
+		loading.clear();
+		generation++;
+	}
+
+	/**
+	 * Recursively registers the folder and its listed or fully loaded sub folders. Fully 
+	 * loaded folders which have not been listed (deep data from the scan index, see 
+	 * DirEntry.getLoadChildren()) are listed after they have been registered, their sub 
+	 * folders get their deep data from the index again (see DirEntry.getChildren()).
+	 *
+	 * @param folder
+	 * @param gen generation of the tree (see clear())
+	 * @param unwatched collects the folders which could not be registered
+	 * @throws Throwable
+	 */
+	private void register(DirEntry folder, int gen, List<DirEntry> unwatched) throws Throwable {
+		List<DirEntry> children = folder.getLoadedChildren();
+		if (children == null && !folder.isFullyLoaded()) return;
+
+		registerKey(folder, gen, unwatched);
+		synchronized(this) {
+			if (gen != generation) return;
+		}
+		if (children == null) children = folder.getChildren();
+		if (children == null) return;
+
+		for (DirEntry child : children) {
+			if (child.isDirectory()) register(child, gen, unwatched);
+		}
+	}
+
+	/**
+	 * Registers one folder at the watch service. Folders which have been removed meanwhile 
+	 * are skipped (their parent gets an event). Other failures are collected, the first one 
+	 * is reported on the console.
+	 *
+	 * @param folder
+	 * @param gen generation of the tree (see clear())
+	 * @param unwatched collects the folders which could not be registered
+	 * @throws Throwable
+	 */
+	private void registerKey(DirEntry folder, int gen, List<DirEntry> unwatched) throws Throwable {
+		WatchKey key;
+		try {
+			key = folder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (NoSuchFileException e) {
+			// Folder has been removed meanwhile
+			return;
+		} catch (IOException e) {
+			// Can not be watched, for example if the limit of watches is reached
+			if (unwatched.isEmpty()) System.out.println(Messages.getString("Msg_WatchFailed", folder.getAbsolutePath(), e)); //$NON-NLS-1$
+			unwatched.add(folder);
+			return;
+		}
+		synchronized(this) {
+			if (gen != generation) {
+				key.cancel();
+				return;
+			}
+			folders.put(key, folder);
+		}
+	}
+
+	/**
+	 * Report on the console how many folders below the given one could not be watched
+	 *
+	 * @param folder
+	 * @param unwatched
+	 * @throws Throwable
+	 */
+	private void reportUnwatched(DirEntry folder, List<DirEntry> unwatched) throws Throwable {
+		if (unwatched.isEmpty()) return;
+		System.out.println(Messages.getString("Msg_WatchFailedCount", unwatched.size(), folder.getAbsolutePath())); //$NON-NLS-1$
+	}
+
+	/**
+	 * Loads a new folder fully and adds it to its parent folder on the EDT (in the fork/join 
+	 * pool, see process()). Each folder is watched before it is listed, and the events 
+	 * which arrive for it meanwhile are kept, to be processed after the folder has been added.
+	 *
+	 * @param folder
+	 * @param child new folder
+	 * @param gen generation of the tree (see clear())
+	 * @throws Throwable
+	 */
+	private void loadNewFolder(DirEntry folder, DirEntry child, int gen) throws Throwable {
+		List<DirEntry> loaded = new ArrayList<DirEntry>();
+		List<DirEntry> unwatched = new ArrayList<DirEntry>();
+		try {
+			loadWatched(child, gen, loaded, unwatched);
+			reportUnwatched(child, unwatched);
+			
+		} finally {
+			finishNewFolder(folder, child, gen, loaded);
+		}
+	}
+
+	/**
+	 * Adds a loaded new folder to its parent folder, and processes the events which have 
+	 * arrived while loading, before any newer ones (see loadNewFolder())
+	 *
+	 * @param folder
+	 * @param child new folder
+	 * @param gen generation of the tree (see clear())
+	 * @param loaded the loaded folders
+	 * @throws Throwable
+	 */
+	private synchronized void finishNewFolder(DirEntry folder, DirEntry child, int gen, List<DirEntry> loaded) throws Throwable {
+		if (gen != generation) return;
+		added(folder, child);
+
+		for (DirEntry f : loaded) {
+			List<WatchEvent<?>> events = loading.remove(f);
+			if (events == null) continue;
+			for (WatchEvent<?> event : events) {
+				process(f, event);
+			}
+		}
+	}
+
+	/**
+	 * Recursively loads a new folder fully, registering each folder before it is listed 
+	 * (see loadNewFolder())
+	 *
+	 * @param folder
+	 * @param gen generation of the tree (see clear())
+	 * @param loaded collects the loaded folders
+	 * @param unwatched collects the folders which could not be registered
+	 * @throws Throwable
+	 */
+	private void loadWatched(DirEntry folder, int gen, List<DirEntry> loaded, List<DirEntry> unwatched) throws Throwable {
+		synchronized(this) {
+			if (gen != generation) return;
+			loading.put(folder, new ArrayList<WatchEvent<?>>());
+		}
+		loaded.add(folder);
+		registerKey(folder, gen, unwatched);
+
+		for (DirEntry child : folder.getChildren()) {
+			if (child.isDirectory()) {
+				loadWatched(child, gen, loaded, unwatched);
+			} else {
+				child.loadFully();
+			}
+		}
+		folder.finishLoadFully();
+	}
+
+	/**
+	 * Watcher thread: Waits for changes and patches the tree
+	 *
+	 */
+	@Override
+	public void run() {
+		try {
+			while(true) {
+				WatchKey key = service.take();
+				List<WatchEvent<?>> events = key.pollEvents();
+
+				DirEntry folder;
+				synchronized(this) {
+					folder = folders.get(key);
+					
+					// New folder still loading: Keep the events for later (see loadNewFolder())
+					List<WatchEvent<?>> pending = (folder != null) ? loading.get(folder) : null;
+					if (pending != null) {
+						pending.addAll(events);
+						folder = null;
+					}
+				}
+				if (folder != null) {
+					for (WatchEvent<?> event : events) {
+						process(folder, event);
+					}
+				}
+
+				if (!key.reset()) {
+					// Folder is not accessible anymore
+					synchronized(this) {
+						folders.remove(key);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		} catch (Throwable e) {
+			Main.handleThrowable(e);
+		}
+	}
+
+	/**
+	 * Process one event: Read the file system here, and change the tree on the EDT.
+	 *
+	 * @param folder
+	 * @param event
+	 * @throws Throwable
+	 */
+	private void process(final DirEntry folder, WatchEvent<?> event) throws Throwable {
+		if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+			invokeLater(new Patch() {
+				@Override
+				public void run() throws Throwable {
+					listener.folderChanged(folder);
+				}
+			});
+			return;
+		}
+
+		final String name = ((Path)event.context()).toString();
+		final File file = new File(folder, name);
+
+		if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+			// Prepare the new child completely, before adding it
+			final DirEntry child = folder.createChild(file);
+			if (!child.exists() || (child.getAttributes().isHidden() && !folder.isLoadingHiddenFiles())) return;
+			
+			if (child.isDirectory() && folder.isFullyLoaded()) {
+				// Can take a while: Not in the watcher thread
+				final int gen;
+				synchronized(this) {
+					gen = generation;
+				}
+				Utils.getForkJoinPool().execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							loadNewFolder(folder, child, gen);
+
+						} catch (Throwable e) {
+							Main.handleThrowable(e);
+						}
+					}
+				});
+				return;
+			}
+			added(folder, child);
+
+		} else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+			invokeLater(new Patch() {
+				@Override
+				public void run() throws Throwable {
+					List<DirEntry> children = folder.getLoadedChildren();
+					int index = folder.getChildIndex(name);
+					if (index < 0) return;
+
+					DirEntry child = children.get(index);
+					folder.removeChild(index);
+					listener.childChanged(folder, child, index, REMOVED);
+				}
+			});
+
+		} else if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
+			final FileAttributes attributes = FileAttributes.read(file);
+
+			invokeLater(new Patch() {
+				@Override
+				public void run() throws Throwable {
+					int index = folder.getChildIndex(name);
+					if (index < 0) return;
+
+					DirEntry child = folder.getLoadedChildren().get(index);
+					if (folder.updateChild(index, attributes)) {
+						listener.childChanged(folder, child, index, CHANGED);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Add a new child to its folder, on the EDT
+	 *
+	 * @param folder
+	 * @param child
+	 */
+	private void added(final DirEntry folder, final DirEntry child) {
+		invokeLater(new Patch() {
+			@Override
+			public void run() throws Throwable {
+				int index = folder.addChild(child);
+				if (index < 0) return;
+
+				listener.childChanged(folder, child, index, ADDED);
+			}
+		});
+	}
+
+	/**
+	 * Changes of the DirEntry tree, executed on the EDT
+	 *
+	 * @author tweber
+	 *
+	 */
+	private interface Patch {
+		public void run() throws Throwable;
+	}
+
+	/**
+	 * Execute a patch on the EDT
+	 *
+	 * @param patch
+	 */
+	private void invokeLater(final Patch patch) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					patch.run();
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,221 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+
+/**
+ * Snapshot of the attributes of a file or folder, read once when the parent folder
+ * is listed (see DirScanner), or lazily by DirEntry.getAttributes(). This way, DirEntry 
+ * instances do not have to ask the file system again for each attribute. The access 
+ * flags (read, write, execute) are not part of the basic attributes, these are 
+ * determined on first access and then kept, too.
+ *
+ * @author tweber
+ *
+ */
+public class FileAttributes {
+
+	/**
+	 * Bits for the access flags
+	 */
+	private static final int ACCESS_LOADED = 1;
+	private static final int ACCESS_READ = 2;
+	private static final int ACCESS_WRITE = 4;
+	private static final int ACCESS_EXECUTE = 8;
+	
+	/**
+	 * Final, so snapshots are safely published to other threads (see DirEntry)
+	 */
+	private final boolean directory;
+	private final boolean hidden;
+	private final long size;
+	private final long lastModified;
+	private final long creationTime;
+	
+	/**
+	 * Access flags (see bits above), 0 if not loaded yet. Volatile, as they may be loaded 
+	 * in the background (see AttributeLoader).
+	 */
+	private volatile int access = 0;
+
+	public FileAttributes(Path path, BasicFileAttributes attrs) {
+		this.directory = attrs.isDirectory();
+		this.size = attrs.size();
+		this.lastModified = attrs.lastModifiedTime().toMillis();
+		this.creationTime = attrs.creationTime().toMillis();
+
+		if (attrs instanceof DosFileAttributes) {
+			// Windows: The hidden flag comes with the attributes anyway
+			this.hidden = ((DosFileAttributes)attrs).isHidden();
+		} else {
+			// Unix-like systems: Hidden files are the ones starting with a dot
+			Path name = path.getFileName();
+			this.hidden = (name != null) && name.toString().startsWith("."); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Fallback for paths which can not be handled by java.nio.file: Uses the 
+	 * java.io.File methods.
+	 * 
+	 * @param file
+	 */
+	private FileAttributes(File file) {
+		this.directory = file.isDirectory();
+		this.hidden = file.isHidden();
+		this.size = file.length();
+		this.lastModified = file.lastModified();
+		this.creationTime = lastModified;
+	}
+
+	/**
+	 * Read the attributes of the given file from the file system. If the file does not 
+	 * exist (anymore), the attributes are the ones java.io.File would return (no folder, 
+	 * size and dates 0).
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public static FileAttributes read(File file) {
+		Path path;
+		try {
+			path = file.toPath();
+		} catch (Throwable t) {
+			return new FileAttributes(file);
+		}
+
+		Class<? extends BasicFileAttributes> type = path.getFileSystem().supportedFileAttributeViews().contains("dos") ? DosFileAttributes.class : BasicFileAttributes.class; //$NON-NLS-1$
+		try {
+			return new FileAttributes(path, Files.readAttributes(path, type));
+		} catch (IOException e) {
+			try {
+				// Broken links
+				return new FileAttributes(path, Files.readAttributes(path, type, LinkOption.NOFOLLOW_LINKS));
+			} catch (IOException e2) {
+				return new FileAttributes(file);
+			}
+		}
+	}
+	
+	/**
+	 * Is this a folder?
+	 *
+	 * @return
+	 */
+	public boolean isDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Is the file hidden?
+	 *
+	 * @return
+	 */
+	public boolean isHidden() {
+		return hidden;
+	}
+
+	/**
+	 * File size in bytes (not meaningful for folders)
+	 *
+	 * @return
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Last modification time in milliseconds
+	 *
+	 * @return
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Creation time in milliseconds
+	 *
+	 * @return
+	 */
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * Can the file be read? Determined on first call.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public boolean canRead(File file) {
+		return (getAccess(file) & ACCESS_READ) > 0;
+	}
+
+	/**
+	 * Can the file be written? Determined on first call.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public boolean canWrite(File file) {
+		return (getAccess(file) & ACCESS_WRITE) > 0;
+	}
+
+	/**
+	 * Can the file be executed? Determined on first call.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public boolean canExecute(File file) {
+		return (getAccess(file) & ACCESS_EXECUTE) > 0;
+	}
+	
+	/**
+	 * Have the access flags been loaded already?
+	 * 
+	 * @return
+	 */
+	public boolean isAccessLoaded() {
+		return access != 0;
+	}
+	
+	/**
+	 * Returns the access flags, loads them on first call
+	 * 
+	 * @param file
+	 * @return
+	 */
+	private int getAccess(File file) {
+		if (access == 0) {
+			int a = ACCESS_LOADED;
+			try {
+				Path path = file.toPath();
+				if (Files.isReadable(path)) a |= ACCESS_READ;
+				if (Files.isWritable(path)) a |= ACCESS_WRITE;
+				if (Files.isExecutable(path)) a |= ACCESS_EXECUTE;
+			} catch (Throwable t) {
+				// Path not accessible by java.nio.file: No access
+			}
+			access = a;
+		}
+		return access;
+	}
+	
+	/**
+	 * Returns if the attributes differ from the given ones, regarding the values
+	 * relevant for sizes and listings (type, size and modification date).
+	 * 
+	 * @param other
+	 * @return
+	 */
+	public boolean differsFrom(FileAttributes other) {
+		return directory != other.directory || size != other.size || lastModified != other.lastModified;
+	}
+}
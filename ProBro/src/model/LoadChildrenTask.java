@@ -0,0 +1,59 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fork/join task which lists the children of a folder and all its sub folders (see 
+ * DirEntry.getChildren()). Each sub folder is forked as a separate task, so the folders
+ * of independent subtrees are listed concurrently. Nothing is aggregated, the entries
+ * are just ready to be visited without any further file system access afterwards.
+ * Cancelled listings stop at the folders not listed yet.
+ *
+ * @author tweber
+ *
+ */
+public class LoadChildrenTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The folder to list
+	 */
+	private DirEntry entry;
+
+	/**
+	 * Cancel flag, shared by all tasks of one listing
+	 */
+	private AtomicBoolean cancelled;
+
+	public LoadChildrenTask(DirEntry entry, AtomicBoolean cancelled) {
+		this.entry = entry;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * List the folder, and fork all its sub folders.
+	 *
+	 */
+	@Override
+	protected void compute() {
+		try {
+			if (cancelled.get() || !entry.isDirectory()) return;
+
+			List<LoadChildrenTask> tasks = new ArrayList<LoadChildrenTask>();
+			for (DirEntry child : entry.getChildren()) {
+				if (child.isDirectory()) {
+					tasks.add(new LoadChildrenTask(child, cancelled));
+				}
+			}
+			invokeAll(tasks);
+
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import main.Main;
+
+/**
+ * Fork/join task for loading a DirEntry fully (parallel variant of DirEntry.loadFully()).
+ * Each sub folder is forked as a separate task, so idle threads of the pool can steal whole
+ * subtrees. Sizes and file/folder counts are aggregated bottom-up after all children have
+ * been joined, which gives the same results as the sequential algorithm.
+ *
+ * Overlapping scans are deduplicated by the ScanRegistry: If a folder is being loaded by 
+ * another task already, the task waits for it, and takes over its results.
+ *
+ * @author tweber
+ *
+ */
+public class LoadFullyTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The entry to load
+	 */
+	private DirEntry entry;
+
+	/**
+	 * Cancel flag, shared by all tasks of one scan
+	 */
+	private AtomicBoolean cancelled;
+
+	public LoadFullyTask(DirEntry entry) {
+		this(entry, new AtomicBoolean(false));
+	}
+
+	public LoadFullyTask(DirEntry entry, AtomicBoolean cancelled) {
+		this.entry = entry;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Load the entry: Fork all sub folders, and aggregate the results when they are finished.
+	 * Entries of cancelled scans are left not fully loaded.
+	 *
+	 */
+	@Override
+	protected void compute() {
+		try {
+			if (cancelled.get() || entry.isFullyLoaded()) return;
+
+			// Folder being loaded by another scan: Wait for it. If it has loaded another instance 
+			// of the folder (or has been cancelled), load it here, the index has the results then.
+			String key = entry.getScanKey();
+			LoadFullyTask other;
+			while ((other = Main.getScanRegistry().claim(key, this)) != null) {
+				other.quietlyJoin();
+				if (cancelled.get() || entry.isFullyLoaded()) return;
+			}
+
+			try {
+				if (entry.isDirectory()) {
+					List<LoadFullyTask> tasks = new ArrayList<LoadFullyTask>();
+					for (DirEntry child : entry.getLoadChildren()) {
+						if (child.isDirectory()) {
+							tasks.add(new LoadFullyTask(child, cancelled));
+						}
+					}
+					invokeAll(tasks);
+				}
+	
+				if (cancelled.get()) return;
+				entry.finishLoadFully();
+				
+			} finally {
+				Main.getScanRegistry().release(key, this);
+			}
+
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	/**
+	 * Cancel this task and all its sub tasks (also the ones already running).
+	 *
+	 */
+	public void cancelScan() {
+		cancelled.set(true);
+	}
+
+	/**
+	 * Returns the entry loaded by this task
+	 *
+	 * @return
+	 */
+	public DirEntry getEntry() {
+		return entry;
+	}
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fork/join task for the project search (parallel variant of ProjectDirEntry.loadProjects()).
+ * The task evaluates its folder, then forks a task for each sub folder and finishes without
+ * waiting for them. Projects which are not contained in another project are loaded fully by
+ * a LoadFullyTask, which is forked as well, so the deep size loads run while the search
+ * continues (unless the sizes are deferred). Nested projects are loaded by the task of their
+ * outer project.
+ *
+ * The results are added by collect() in the searching thread, which walks the tasks in
+ * the order of the folder tree and waits for each one, so the results are added (and
+ * shown) as soon as all folders before them have been evaluated, in the same order as
+ * with the sequential search.
+ *
+ * The tree has to be listed and scanned by ProjectSearch before (see
+ * ProjectDirEntry.loadProjectsParallel()), so the tasks only read the entries they share.
+ *
+ * If the search is cancelled, the tasks not started yet (including the deep size loads)
+ * return at once, and collect() stops: Folders whose search has not been completed keep
+ * no results, so they are searched again next time.
+ *
+ * @author tweber
+ *
+ */
+public class LoadProjectsTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The folder to search
+	 */
+	private ProjectDirEntry entry;
+
+	/**
+	 * Root folder of the search
+	 */
+	private ProjectDirEntry root;
+
+	/**
+	 * Leave the deep size loads to the caller?
+	 */
+	private boolean deferSizes;
+
+	/**
+	 * Cancel flag, shared by all tasks of one search
+	 */
+	private AtomicBoolean cancelled;
+
+	/**
+	 * Has the folder been evaluated (see ProjectDirEntry.detectProject())?
+	 */
+	private boolean detected = false;
+
+	/**
+	 * Deep load of the project, or null
+	 */
+	private LoadFullyTask load = null;
+
+	/**
+	 * Tasks of the sub folders
+	 */
+	private List<LoadProjectsTask> tasks = new ArrayList<LoadProjectsTask>();
+
+	public LoadProjectsTask(ProjectDirEntry entry, ProjectDirEntry root, boolean deferSizes, AtomicBoolean cancelled) {
+		this.entry = entry;
+		this.root = root;
+		this.deferSizes = deferSizes;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Evaluate the folder and fork the sub folders.
+	 *
+	 */
+	@Override
+	protected void compute() {
+		try {
+			// Searched before: The results are taken over by collect()
+			if (cancelled.get() || entry.projectsLoaded()) return;
+
+			detected = entry.detectProject(root);
+			if (!detected) return;
+
+			if (entry.isProject() && !entry.isContainedInProject() && !deferSizes) {
+				load = new LoadFullyTask(entry, cancelled);
+				load.fork();
+			}
+
+			for (DirEntry child : entry.getChildren()) {
+				if (child.isDirectory()) {
+					LoadProjectsTask t = new LoadProjectsTask((ProjectDirEntry)child, root, deferSizes, cancelled);
+					tasks.add(t);
+					t.fork();
+				}
+			}
+
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	/**
+	 * Add the results of the folder and all its sub folders, waiting for their tasks
+	 * to be finished. Projects are added after they have been loaded fully (unless
+	 * the sizes are deferred). Stops if the search has been cancelled.
+	 *
+	 * @param results
+	 * @throws Throwable
+	 */
+	void collect(ProjectResults results) throws Throwable {
+		join();
+		if (cancelled.get()) return;
+
+		if (!detected && entry.projectsLoaded()) {
+			results.addAll(entry);
+			return;
+		}
+
+		int projects = results.getProjectCount();
+		int leftovers = results.getLeftoverCount();
+
+		if (detected) {
+			if (load != null) load.join();
+			if (cancelled.get()) return;
+			results.add(entry, root);
+
+			for (LoadProjectsTask t : tasks) {
+				t.collect(results);
+			}
+			tasks = null;
+			if (cancelled.get()) return;
+		}
+		entry.setProjectResults(results, projects, leftovers);
+	}
+}
@@ -0,0 +1,69 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only list of the files matching a list of property extensions (see
+ * ProjectDirEntry.getMatchingFiles()). The matches are held in one segment per extension,
+ * in the order of the extensions. The segments are views on the match lists of the
+ * project search (see ProjectSearch) while it is running, so they do not have to be copied
+ * for each folder.
+ *
+ * @author tweber
+ *
+ */
+public class MatchList extends AbstractList<ProjectDirEntry> {
+
+	/**
+	 * Extensions, one for each segment
+	 */
+	private List<ProjectPropertyExtension> extensions = new ArrayList<ProjectPropertyExtension>();
+
+	/**
+	 * Matching files, one segment for each extension
+	 */
+	private List<List<ProjectDirEntry>> segments = new ArrayList<List<ProjectDirEntry>>();
+
+	/**
+	 * Overall size
+	 */
+	private int size = 0;
+
+	/**
+	 * Add the matches for an extension
+	 *
+	 * @param extension
+	 * @param matches
+	 */
+	void add(ProjectPropertyExtension extension, List<ProjectDirEntry> matches) {
+		extensions.add(extension);
+		segments.add(matches);
+		size += matches.size();
+	}
+
+	/**
+	 * Get file at the given index
+	 *
+	 */
+	@Override
+	public ProjectDirEntry get(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); //$NON-NLS-1$ //$NON-NLS-2$
+
+		for (List<ProjectDirEntry> s : segments) {
+			if (index < s.size()) return s.get(index);
+			index -= s.size();
+		}
+		return null;
+	}
+
+	/**
+	 * Number of matching files
+	 *
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+}
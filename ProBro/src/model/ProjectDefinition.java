@@ -3,7 +3,9 @@ package model;
 import java.awt.Color;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -48,6 +50,21 @@ public class ProjectDefinition {
 	 */
 	private List<String> ignoreExtensions = new ArrayList<String>();
 	
+	/**
+	 * Lower case ignore extensions, for lookup
+	 */
+	private Set<String> ignoreSet = new HashSet<String>();
+	
+	/**
+	 * Lower case names of all targets which can make a folder a project, if found (see compile())
+	 */
+	private Set<String> qualifyingTargetNames = new HashSet<String>();
+	
+	/**
+	 * Qualifying extensions of the properties without targets (see compile())
+	 */
+	private List<ProjectPropertyExtension> qualifyingExtensions = new ArrayList<ProjectPropertyExtension>();
+	
 	/**
 	 * File to load the definition from
 	 */
@@ -98,6 +115,38 @@ public class ProjectDefinition {
 				}
 			}
 		}
+		
+		compile();
+	}
+	
+	/**
+	 * Build the lookup tables for the project search. A folder can only be a project if
+	 * it directly contains one of the qualifying target names, or if it contains files
+	 * matching one of the qualifying extensions of a property without targets. Folders
+	 * which do neither, do not have to be evaluated in detail (see ProjectDirEntry).
+	 */
+	private void compile() {
+		for(String ext : ignoreExtensions) {
+			ignoreSet.add(ext.toLowerCase());
+		}
+		
+		for(ProjectPropertyDefinition d : propertyDefinitions) {
+			if (d.getTargets().size() > 0) {
+				// Found targets qualify by themselves or by the files inside them 
+				boolean qualifyingExtension = false;
+				for(ProjectPropertyExtension e : d.getExtensions()) {
+					if (e.isQualifying()) qualifyingExtension = true;
+				}
+				for(ProjectPropertyTarget t : d.getTargets()) {
+					if (t.isQualifying() || qualifyingExtension) qualifyingTargetNames.add(t.getFileName().toLowerCase());
+				}
+			} else {
+				// The first definition of an extension decides if it is qualifying 
+				for(ProjectPropertyExtension e : d.getExtensions()) {
+					if (e.isQualifying() && d.getExtension(e.getLowerCaseExtension()) == e) qualifyingExtensions.add(e);
+				}
+			}
+		}
 	}
 	
 	/**
@@ -186,6 +235,35 @@ public class ProjectDefinition {
 		return ignoreExtensions;
 	}
 	
+	/**
+	 * Returns if folders with the given (lower case) extension are ignored in project search
+	 * 
+	 * @param lowerCaseExtension
+	 * @return
+	 */
+	public boolean isIgnored(String lowerCaseExtension) {
+		return ignoreSet.contains(lowerCaseExtension);
+	}
+	
+	/**
+	 * Returns if a target with the given (lower case) name can make its folder a project
+	 * 
+	 * @param lowerCaseName
+	 * @return
+	 */
+	public boolean isQualifyingTargetName(String lowerCaseName) {
+		return qualifyingTargetNames.contains(lowerCaseName);
+	}
+	
+	/**
+	 * Returns the qualifying extensions of all properties without targets
+	 * 
+	 * @return
+	 */
+	public List<ProjectPropertyExtension> getQualifyingExtensions() {
+		return qualifyingExtensions;
+	}
+	
 	/**
 	 * Parse the color attribute string from the XML definition, to a Color object.
 	 * 
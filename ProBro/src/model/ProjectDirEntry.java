@@ -3,11 +3,14 @@ package model;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import main.Main;
+import main.Utils;
 
 /**
  * A directory entry (file or folder). This instance can be loaded fully, which
@@ -23,9 +26,16 @@ public class ProjectDirEntry extends DirEntry {
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * File counter column models. 
+	 * Patterns for years in project folder names (see determineProjectYear())
 	 */
-	private List<ProjectProperty> properties = new ArrayList<ProjectProperty>();
+	private static final Pattern YEAR_19XX = Pattern.compile("19[\\d][\\d]");
+	private static final Pattern YEAR_20XX = Pattern.compile("20[\\d][\\d]");
+
+	/**
+	 * File counter column models. Shares one empty list until the properties are loaded,
+	 * as most entries (files, folders below the search root) never get any.
+	 */
+	private List<ProjectProperty> properties = Collections.emptyList();
 	
 	/**
 	 * Year of project (determined by different things, see usage)
@@ -40,7 +50,8 @@ public class ProjectDirEntry extends DirEntry {
 
 	/**
 	 * Date/time of the last modification of the last modification of any file
-	 * or folder inside the project
+	 * or folder inside the project. For folders visited by a project search, this
+	 * is collected by the search (see ProjectSearch).
 	 */
 	private Date projectLastModified = null;
 	
@@ -51,29 +62,49 @@ public class ProjectDirEntry extends DirEntry {
 	private boolean projectPropertiesLoaded = false;
 
 	/**
-	 * Recursive project list. Contains all projects inside this folder. If
-	 * null, the projects have not been searched for yet.
+	 * Results of the project search which has searched this folder. If null, the 
+	 * projects have not been searched for yet.
 	 */
-	private List<ProjectDirEntry> projectList = null;
+	private ProjectResults projectResults = null;
 
 	/**
-	 * Recursive list of all folders not identified as projects. Contains all folder which 
-	 * are not contained in projectsList.
+	 * Ranges of the recursive project list (all projects inside this folder) and the 
+	 * leftovers list (all folders not identified as projects, and not contained in a
+	 * project) in the search results.
 	 */
-	private List<ProjectDirEntry> projectLeftoversList = null;
+	private int projectsStart;
+	private int projectsEnd;
+	private int leftoversStart;
+	private int leftoversEnd;
 	
 	/**
 	 * Buffer for isContainedInProject
 	 */
 	private boolean isContainedInProject;
 	
+	/**
+	 * Size aggregates of the projects and leftovers in this folder (created on first request)
+	 */
+	private SizeAggregate<ProjectDirEntry> projectSizes = null;
+	private SizeAggregate<ProjectDirEntry> leftoverSizes = null;
+	
+	/**
+	 * Size aggregates which contain this folder, or null
+	 */
+	private List<SizeAggregate<ProjectDirEntry>> sizeAggregates = null;
+	
+	/**
+	 * Has the folder been found as leftover by the project search?
+	 */
+	private boolean projectLeftover = false;
+	
 	/**
 	 * Buffer for isProject
 	 */
 	private int isProjectBuffer = -1;
 	
 	/**
-	 * Buffer for getExtension
+	 * Buffer for getLowerCaseExtension
 	 */
 	private String extension = null;
 	
@@ -82,6 +113,17 @@ public class ProjectDirEntry extends DirEntry {
 	 */
 	private ProjectDirEntry earliestMatching;
 	
+	/**
+	 * Project search which has visited this entry (see ProjectSearch), or null
+	 */
+	private ProjectSearch search = null;
+	
+	/**
+	 * Ranges of the contents of this folder in the match lists of the project search
+	 * (start and end index for each extension), null for files
+	 */
+	private int[] matchRanges = null;
+	
 	public ProjectDirEntry(String name) throws Throwable {
 		super(name);
 	}
@@ -112,11 +154,13 @@ public class ProjectDirEntry extends DirEntry {
 	public List<ProjectDirEntry> getProjectList() throws Throwable {
 		if (!isDirectory()) return null;
 		if (!projectsLoaded()) return new ArrayList<ProjectDirEntry>();
-		return projectList;
+		return projectResults.getProjects(projectsStart, projectsEnd);
 	}
 
 	/**
 	 * Returns the list of all folders inside this folder which are not identified as projects.
+	 * If the leftovers are aggregated, these are only the outermost ones, and for a leftover
+	 * folder its leftover sub folders (drill down).
 	 * 
 	 * @return
 	 * @throws Throwable
@@ -124,7 +168,14 @@ public class ProjectDirEntry extends DirEntry {
 	public List<ProjectDirEntry> getProjectLeftoversList() throws Throwable {
 		if (!isDirectory()) return null;
 		if (!projectsLoaded()) return new ArrayList<ProjectDirEntry>();
-		return projectLeftoversList;
+		if (projectLeftover && projectResults.isAggregated()) {
+			List<ProjectDirEntry> ret = new ArrayList<ProjectDirEntry>();
+			for (DirEntry d : getChildren()) {
+				if (d.isDirectory() && ((ProjectDirEntry)d).projectLeftover) ret.add((ProjectDirEntry)d);
+			}
+			return ret;
+		}
+		return projectResults.getLeftovers(leftoversStart, leftoversEnd);
 	}
 	
 	/**
@@ -133,7 +184,7 @@ public class ProjectDirEntry extends DirEntry {
 	 * @return
 	 */
 	public boolean projectsLoaded() {
-		return projectList != null;
+		return projectResults != null;
 	}
 
 	/**
@@ -144,52 +195,218 @@ public class ProjectDirEntry extends DirEntry {
 	 * @throws IOException
 	 */
 	public void loadProjects() throws Throwable {
-		loadProjects(this);
+		loadProjects(null, false, false);
+	}
+	
+	/**
+	 * Load project data, the listener is notified of each project or leftover 
+	 * folder as soon as it is found. If deferSizes is set, the projects are not
+	 * loaded fully by the search, this is left to the caller (see DeepLoadQueue).
+	 * If aggregateLeftovers is set, only the outermost leftovers are listed (see 
+	 * ProjectResults).
+	 * 
+	 * @param listener
+	 * @param deferSizes
+	 * @param aggregateLeftovers
+	 * @throws Throwable
+	 */
+	public void loadProjects(ProjectResults.Listener listener, boolean deferSizes, boolean aggregateLeftovers) throws Throwable {
+		if (projectsLoaded() || !isDirectory()) return;
+		clearProjectLeftover();
+		
+		// Collect all matching files in one pass
+		new ProjectSearch(Main.getProjectDefinition()).scan(this);
+		
+		loadProjects(this, new ProjectResults(listener, aggregateLeftovers), deferSizes);
+		releaseSearch();
+	}
+	
+	/**
+	 * Parallel variant of loadProjects(): The folder tree is listed by the fork/join pool
+	 * first, then the projects are detected in the sub trees concurrently, while the 
+	 * detected projects are loaded fully in separate tasks (see LoadProjectsTask). The
+	 * results are added (and the listener is notified) in the same order as with 
+	 * loadProjects(), in the calling thread. Setting the cancel flag stops all tasks 
+	 * of the search.
+	 * 
+	 * @param listener
+	 * @param deferSizes
+	 * @param aggregateLeftovers
+	 * @param cancelled
+	 * @throws Throwable
+	 */
+	public void loadProjectsParallel(ProjectResults.Listener listener, boolean deferSizes, boolean aggregateLeftovers, AtomicBoolean cancelled) throws Throwable {
+		if (projectsLoaded() || !isDirectory()) return;
+		clearProjectLeftover();
+		
+		Utils.getForkJoinPool().invoke(new LoadChildrenTask(this, cancelled));
+		if (cancelled.get()) return;
+		new ProjectSearch(Main.getProjectDefinition()).scan(this);
+
+		LoadProjectsTask task = new LoadProjectsTask(this, this, deferSizes, cancelled);
+		if (!cancelled.get()) {
+			Utils.getForkJoinPool().execute(task);
+			task.collect(new ProjectResults(listener, aggregateLeftovers));
+		}
+		releaseSearch();
+	}
+	
+	/**
+	 * Set the project search which has visited this entry
+	 * 
+	 * @param search
+	 */
+	void setSearch(ProjectSearch search) {
+		this.search = search;
+	}
+	
+	/**
+	 * Release the match lists of the project search in this folder and all its contents, after
+	 * the search is done. The matching files are searched again if needed later (see 
+	 * ProjectProperty.getMatchingFiles()).
+	 * 
+	 * @throws Throwable
+	 */
+	private void releaseSearch() throws Throwable {
+		if (search == null) return;
+		search = null;
+		matchRanges = null;
+		
+		if (isDirectory()) {
+			for (DirEntry d : getChildren()) {
+				((ProjectDirEntry)d).releaseSearch();
+			}
+		}
+	}
+	
+	/**
+	 * Set the ranges of the folder contents in the match lists of the project search
+	 * 
+	 * @param ranges
+	 */
+	void setMatchRanges(int[] ranges) {
+		this.matchRanges = ranges;
+	}
+	
+	/**
+	 * Returns the ranges of the folder contents in the match lists of the project search
+	 * 
+	 * @return
+	 */
+	int[] getMatchRanges() {
+		return matchRanges;
 	}
 		
 	/**
 	 * Recursive main algorithm for loadProjects()
 	 * 
 	 * @param root
+	 * @param results
+	 * @param deferSizes
 	 * @throws Throwable
 	 */
-	private void loadProjects(ProjectDirEntry root) throws Throwable {
-		if (projectsLoaded())
+	private void loadProjects(ProjectDirEntry root, ProjectResults results, boolean deferSizes) throws Throwable {
+		if (projectsLoaded()) {
+			// Searched before: Take over the results
+			results.addAll(this);
 			return;
-
+		}
+		
+		int projects = results.getProjectCount();
+		int leftovers = results.getLeftoverCount();
+		
+		if (detectProject(root)) {
+			if (isProject() && !deferSizes) loadFully();
+			results.add(this, root);
+
+			// Recurse search to all children
+			for (DirEntry d : getChildren()) {
+				if (d.isDirectory()) {
+					((ProjectDirEntry)d).loadProjects(root, results, deferSizes);
+				}
+			}
+		}
+		setProjectResults(results, projects, leftovers);
+	}
+	
+	/**
+	 * Evaluates this folder alone (without its sub folders) for the project search, and
+	 * marks the sub folders if they are contained in a project. Returns false if the folder 
+	 * does not have to be searched (no folder or ignored). 
+	 * 
+	 * @param root
+	 * @return
+	 * @throws Throwable
+	 */
+	boolean detectProject(ProjectDirEntry root) throws Throwable {
 		if (!isDirectory())
-			return;
+			return false;
 
-		projectList = new ArrayList<ProjectDirEntry>();
-		projectLeftoversList = new ArrayList<ProjectDirEntry>();
-
-		for(String ext : Main.getProjectDefinition().getIgnoreExtensions()) {
-			if (getExtension().toLowerCase().equals(ext.toLowerCase())) 
-				return;			
-		}
+		if (Main.getProjectDefinition().isIgnored(getLowerCaseExtension())) 
+			return false;
 
 		loadProjectProperties();
 
-		if (isProject()) {
-			projectList.add(this);
-			loadFully();
-		} else {
-			if (!isContainedInProject && root != this) 
-				projectLeftoversList.add(this);
-		}
-
-		// Recurse search to all children
 		for (DirEntry d : getChildren()) {
-			if (d.isDirectory()) {
-				ProjectDirEntry p = (ProjectDirEntry)d;
-				if (isProject() || isContainedInProject) p.isContainedInProject = true;
-				
-				p.loadProjects(root);
-				
-				projectList.addAll(p.projectList);
-				projectLeftoversList.addAll(p.projectLeftoversList);
+			if (d.isDirectory() && (isProject() || isContainedInProject)) {
+				((ProjectDirEntry)d).isContainedInProject = true;
 			}
 		}
+		return true;
+	}
+	
+	/**
+	 * Returns if the folder is listed as leftover in a search from root
+	 * 
+	 * @param root
+	 * @return
+	 * @throws Throwable
+	 */
+	boolean isLeftoverOf(ProjectDirEntry root) throws Throwable {
+		return !isProject() && !isContainedInProject && root != this;
+	}
+	
+	/**
+	 * Returns if the folder has been found as leftover by the project search
+	 * 
+	 * @return
+	 */
+	public boolean isProjectLeftover() {
+		return projectLeftover;
+	}
+	
+	/**
+	 * Mark the folder as leftover (see ProjectResults)
+	 * 
+	 */
+	void setProjectLeftover() {
+		projectLeftover = true;
+	}
+	
+	/**
+	 * The root of a search is no leftover of it: Remove the mark a cancelled search from a 
+	 * parent folder may have left, which would hide the leftovers of this folder (see 
+	 * ProjectResults.isListed()). A search from a parent marks the folder again.
+	 * 
+	 */
+	private void clearProjectLeftover() {
+		projectLeftover = false;
+	}
+	
+	/**
+	 * Marks the folder as searched, after all its sub folders have been searched. Its
+	 * results are the ones added to the search results since the given counts. 
+	 * 
+	 * @param results
+	 * @param projects
+	 * @param leftovers
+	 */
+	void setProjectResults(ProjectResults results, int projects, int leftovers) {
+		projectsStart = projects;
+		projectsEnd = results.getProjectCount();
+		leftoversStart = leftovers;
+		leftoversEnd = results.getLeftoverCount();
+		projectResults = results;
 	}
 
 	/**
@@ -198,6 +415,12 @@ public class ProjectDirEntry extends DirEntry {
 	private void loadProjectProperties() throws Throwable {
 		if (projectPropertiesLoaded()) return;
 
+		// Folders which can not qualify keep the shared empty list
+		if (!canBeProject()) {
+			projectPropertiesLoaded = true;
+			return;
+		}
+		
 		// Set up and execute the file counters
 		properties = new ArrayList<ProjectProperty>();
 		
@@ -211,13 +434,40 @@ public class ProjectDirEntry extends DirEntry {
 		if (isProject(true)) {
 			// Year of project
 			projectYear = determineProjectYear();
-			// Last modified date (latest of all inside the project)
-			projectLastModified = determineProjectLastModified();
+			// Last modified date (latest of all inside the project), if not collected by the search
+			if (projectLastModified == null) projectLastModified = new Date(determineProjectLastModified());
+		} else {
+			// Only projects keep their property results
+			isProjectBuffer = 0;
+			properties = Collections.emptyList();
 		}
 
 		projectPropertiesLoaded = true;
 	}
 
+	/**
+	 * Cheap prefilter for loadProjectProperties(): Returns false if the folder can not
+	 * be a project, because it neither contains a qualifying target nor any file matching
+	 * a qualifying extension (see ProjectDefinition.compile()). Without a project search,
+	 * the matches are not known in advance, so true is returned then.
+	 * 
+	 * @return
+	 * @throws Throwable
+	 */
+	private boolean canBeProject() throws Throwable {
+		if (!isDirectory()) return false;
+		if (search == null) return true;
+		
+		ProjectDefinition def = Main.getProjectDefinition();
+		for (ProjectPropertyExtension e : def.getQualifyingExtensions()) {
+			if (search.hasMatches(this, e)) return true;
+		}
+		for (DirEntry c : getChildren()) {
+			if (def.isQualifyingTargetName(c.getName().toLowerCase())) return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Is all projects info already gathered?
 	 * 
@@ -294,13 +544,11 @@ public class ProjectDirEntry extends DirEntry {
 	 */
 	private String determineProjectYear() throws Throwable {
 		// Search for 19XX
-		Pattern p = Pattern.compile("19[\\d][\\d]");
-		Matcher m = p.matcher(getName());
+		Matcher m = YEAR_19XX.matcher(getName());
 		if (m.find()) return m.group();
 
 		// Search for 20XX
-		Pattern p2 = Pattern.compile("20[\\d][\\d]");
-		Matcher m2 = p2.matcher(getName());
+		Matcher m2 = YEAR_20XX.matcher(getName());
 		if (m2.find()) return m2.group();
 
 		yearIsEstimated = true;
@@ -325,10 +573,13 @@ public class ProjectDirEntry extends DirEntry {
 	 */
 	public ProjectDirEntry getEarliestMatchingFile() throws Throwable {
 		if (earliestMatching == null) {
+			long earliestTime = 0;
 			for (ProjectProperty p : properties) {
 				for (ProjectDirEntry d : p.getMatchingFiles()) {
-					if (earliestMatching == null || earliestMatching.getCreationDate().compareTo(d.getCreationDate()) < 0) {
+					long time = d.getAttributes().getCreationTime();
+					if (earliestMatching == null || time < earliestTime) {
 						earliestMatching = d;
+						earliestTime = time;
 					}
 				}
 			}
@@ -338,26 +589,32 @@ public class ProjectDirEntry extends DirEntry {
 
 	/**
 	 * Determine last modification of the project, which is the latest
-	 * modification date of all files inside the project.
+	 * modification date of all files inside the project (if not collected
+	 * by the project search before).
 	 * 
 	 * @return
 	 */
-	private Date determineProjectLastModified() throws Throwable {
-		Date ft = getLastModificationDate();
+	private long determineProjectLastModified() throws Throwable {
+		long ft = lastModified();
 		
 		if (isDirectory()) {
 			for(DirEntry c : getChildren()) {
 				ProjectDirEntry p = (ProjectDirEntry)c;
-				Date childTime = p.determineProjectLastModified();
-				
-				if (ft.compareTo(childTime) < 0) {
-					ft = childTime;
-				}
+				ft = Math.max(ft, p.determineProjectLastModified());
 			}
 		}
 		
 		return ft;
 	}
+	
+	/**
+	 * Set the latest modification of the folder contents, collected by the project search
+	 * 
+	 * @param time
+	 */
+	void setProjectLastModified(long time) {
+		projectLastModified = new Date(time);
+	}
 
 	/**
 	 * Returns the project year (buffered). If there is some year in the folder
@@ -400,7 +657,7 @@ public class ProjectDirEntry extends DirEntry {
 	 * @return
 	 */
 	private boolean matchesExtension(ProjectPropertyExtension extension) throws Throwable {
-		if (getExtension().toLowerCase().equals(extension.getExtension().toLowerCase())) return true;
+		if (getLowerCaseExtension().equals(extension.getLowerCaseExtension())) return true;
 		return false;
 	}
 	
@@ -410,56 +667,112 @@ public class ProjectDirEntry extends DirEntry {
 	 * @return
 	 */
 	public String getExtension() throws Throwable {
+		return com.google.common.io.Files.getFileExtension(getName());
+	}
+
+	/**
+	 * Returns the file extension in lower case (buffered), as used for matching
+	 * 
+	 * @return
+	 */
+	public String getLowerCaseExtension() throws Throwable {
 		if (extension != null) return extension;
-		extension = com.google.common.io.Files.getFileExtension(getAbsolutePath());
+		// Interned, as there are only few different extensions among many entries
+		extension = getExtension().toLowerCase().intern();
 		return extension;
 	}
 
 	/**
-	 * If fully loaded this returns the largest project, if
-	 * not or no projects exist, null.
+	 * Returns the largest of the fully loaded projects, or null if
+	 * there is none.
 	 * 
 	 * @return
 	 * @throws IOException 
 	 */
 	public ProjectDirEntry getLargestProject() throws Throwable {
-		return getLargestOf(getProjectList());
+		SizeAggregate<ProjectDirEntry> sizes = getProjectSizes();
+		return sizes == null ? null : sizes.getLargest();
 	}
 
 	/**
-	 * If fully loaded this returns the largest non-project folder.
+	 * Returns the largest of the fully loaded non-project folders, or null.
 	 * 
 	 * @return
 	 * @throws IOException 
 	 */
 	public ProjectDirEntry getLargestProjectLeftover() throws Throwable {
-		return getLargestOf(getProjectLeftoversList());
+		SizeAggregate<ProjectDirEntry> sizes = getProjectLeftoverSizes();
+		return sizes == null ? null : sizes.getLargest();
+	}
+
+	/**
+	 * Returns the size aggregates of the projects in this folder, or null if the 
+	 * projects have not been searched yet.
+	 * 
+	 * @return
+	 * @throws Throwable
+	 */
+	public synchronized SizeAggregate<ProjectDirEntry> getProjectSizes() throws Throwable {
+		if (!projectsLoaded() || !isDirectory()) return null;
+		if (projectSizes == null) projectSizes = createSizeAggregate(getProjectList());
+		return projectSizes;
 	}
 
 	/**
-	 * Get the largest file of a set of files
+	 * Returns the size aggregates of the leftovers in this folder, or null if the 
+	 * projects have not been searched yet.
+	 * 
+	 * @return
+	 * @throws Throwable
+	 */
+	public synchronized SizeAggregate<ProjectDirEntry> getProjectLeftoverSizes() throws Throwable {
+		if (!projectsLoaded() || !isDirectory()) return null;
+		if (leftoverSizes == null) leftoverSizes = createSizeAggregate(getProjectLeftoversList());
+		return leftoverSizes;
+	}
+
+	/**
+	 * Create the size aggregates for the given folders, which get updated by the folders from now on.
 	 * 
 	 * @param list
 	 * @return
 	 * @throws Throwable
 	 */
-	private ProjectDirEntry getLargestOf(List<ProjectDirEntry> list) throws Throwable {
-		if (!projectsLoaded()) return null;
-		if (list == null) return null;
-		
-		long max = 0;
-		ProjectDirEntry ret = null;
-		for(ProjectDirEntry child : list) {
-			if (!child.isFullyLoaded()) child.loadFully();
-			if (child.getSize() >= max) {
-				max = child.getSize();
-				ret = child;
-			}
+	private static SizeAggregate<ProjectDirEntry> createSizeAggregate(List<ProjectDirEntry> list) throws Throwable {
+		SizeAggregate<ProjectDirEntry> ret = new SizeAggregate<ProjectDirEntry>(list);
+		for(ProjectDirEntry e : list) {
+			e.addSizeAggregate(ret);
 		}
-		
+		ret.build();
 		return ret;
 	}
 
+	/**
+	 * Register size aggregates which contain this folder
+	 * 
+	 * @param aggregate
+	 */
+	private synchronized void addSizeAggregate(SizeAggregate<ProjectDirEntry> aggregate) {
+		if (sizeAggregates == null) sizeAggregates = new ArrayList<SizeAggregate<ProjectDirEntry>>(1);
+		sizeAggregates.add(aggregate);
+	}
+
+	/**
+	 * Update the size aggregates containing this folder
+	 * 
+	 */
+	@Override
+	protected void deepDataChanged() {
+		List<SizeAggregate<ProjectDirEntry>> aggregates;
+		synchronized(this) {
+			if (sizeAggregates == null) return;
+			aggregates = new ArrayList<SizeAggregate<ProjectDirEntry>>(sizeAggregates);
+		}
+		for(SizeAggregate<ProjectDirEntry> a : aggregates) {
+			a.update(this);
+		}
+	}
+
 	/**
 	 * Returns the list of available file counters
 	 * 
@@ -469,6 +782,27 @@ public class ProjectDirEntry extends DirEntry {
 		return properties;
 	}
 
+	/**
+	 * Returns the number of files or folders inside this folder which match the given extensions, for 
+	 * each extension of the list
+	 * 
+	 * @param extensions
+	 * @return
+	 * @throws Throwable
+	 */
+	public int[] getMatchCounts(List<ProjectPropertyExtension> extensions) throws Throwable {
+		int[] ret = new int[extensions.size()];
+		for(int i = 0; i < ret.length; i++) {
+			if (search != null) {
+				// Already collected by the project search
+				ret[i] = search.getMatchCount(this, extensions.get(i));
+			} else {
+				ret[i] = getMatchingFiles(extensions.get(i), this).size();
+			}
+		}
+		return ret;
+	}
+	
 	/**
 	 * Returns all files or folders inside this folder which match the given list of extensions
 	 * 
@@ -476,10 +810,15 @@ public class ProjectDirEntry extends DirEntry {
 	 * @return
 	 * @throws Throwable 
 	 */
-	public List<ProjectDirEntry> getMatchingFiles(List<ProjectPropertyExtension> extensions) throws Throwable {
-		List<ProjectDirEntry> ret = new ArrayList<ProjectDirEntry>();
+	public MatchList getMatchingFiles(List<ProjectPropertyExtension> extensions) throws Throwable {
+		MatchList ret = new MatchList();
 		for(ProjectPropertyExtension e : extensions) {
-			ret.addAll(getMatchingFiles(e, this));
+			if (search != null) {
+				// Already collected by the project search
+				ret.add(e, search.getMatches(this, e));
+			} else {
+				ret.add(e, getMatchingFiles(e, this));
+			}
 		}
 		return ret;
 	}
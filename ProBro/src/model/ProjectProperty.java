@@ -1,6 +1,5 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -34,11 +33,17 @@ public class ProjectProperty {
 	private ProjectPropertyTarget targetProperty = null;
 	
 	/**
-	 * List of matching files. These are searched inside the folder if one is defined, or in the project
-	 * root if no folder is specified.
+	 * Number of matching files for each extension of the definition, in the order of the extensions. The 
+	 * files are searched inside the folder if one is defined, or in the project root if no folder is specified.
+	 * The file lists themselves are only built on demand (see getMatchingFiles()).
 	 * 
 	 */
-	private List<ProjectDirEntry> matchingFiles = null;
+	private int[] matchCounts = null;
+	
+	/**
+	 * Overall number of matching files
+	 */
+	private int matchCount = 0;
 	
 	public ProjectProperty(ProjectDirEntry folder, ProjectPropertyDefinition def) {
 		this.projectFolder = folder;
@@ -69,7 +74,9 @@ public class ProjectProperty {
 	 */
 	public void load() throws Throwable {
 		target = searchForProjectProperty();
-		matchingFiles = loadMatchingFiles();
+		matchCounts = loadMatchCounts();
+		matchCount = 0;
+		for (int c : matchCounts) matchCount += c;
 	}
 	
 	/**
@@ -80,7 +87,7 @@ public class ProjectProperty {
 		if (def.getTargets().size() > 0) {
 			return target != null;
 		} else {
-			if (matchingFiles.size() > 0) return true;
+			if (matchCount > 0) return true;
 			return false;
 		}
 	}
@@ -114,14 +121,17 @@ public class ProjectProperty {
 		if (projectFolder == null) throw new Exception("FileCounter folder not initialized yet!");
 		if (!projectFolder.isDirectory()) return null;
 
+		if (def.getTargets().size() == 0) return null;
+
 		for (DirEntry d : projectFolder.getChildren()) {
-			// Child is a file: See if it matches one of the file definitions of the property
-			for (ProjectPropertyTarget token : def.getTargets()) {
-				if (d.getName().toLowerCase().equals((token.getFileName()).toLowerCase())) {
-					if ((!d.isDirectory() && token instanceof ProjectPropertyFileTarget) || (d.isDirectory() && token instanceof ProjectPropertyFolderTarget)) {
-						targetProperty = token;
-						return (ProjectDirEntry) d;
-					}
+			// See if the child matches one of the file or folder definitions of the property
+			List<ProjectPropertyTarget> tokens = def.getTargets(d.getName().toLowerCase());
+			if (tokens == null) continue;
+			
+			for (ProjectPropertyTarget token : tokens) {
+				if ((!d.isDirectory() && token instanceof ProjectPropertyFileTarget) || (d.isDirectory() && token instanceof ProjectPropertyFolderTarget)) {
+					targetProperty = token;
+					return (ProjectDirEntry) d;
 				}
 			}
 		}
@@ -138,17 +148,32 @@ public class ProjectProperty {
 	}
 
 	/**
-	 * Returns the amount of matching folders inside the target
+	 * Returns the amount of matching files inside the target, for each extension
+	 * 
+	 * @return
+	 * @throws Throwable 
+	 */
+	private int[] loadMatchCounts() throws Throwable {
+		if (def.getTargets().size() > 0) {
+			// If any file or folders are defined, we have to search there
+			if (target != null) {
+				return getTarget().getMatchCounts(def.getExtensions());
+			} else return new int[def.getExtensions().size()];
+		} else return projectFolder.getMatchCounts(def.getExtensions());
+	}
+
+	/**
+	 * Returns the matching files inside the target
 	 * 
 	 * @return
 	 * @throws Throwable 
 	 */
-	private List<ProjectDirEntry> loadMatchingFiles() throws Throwable {
+	private MatchList loadMatchingFiles() throws Throwable {
 		if (def.getTargets().size() > 0) {
 			// If any file or folders are defined, we have to search there
 			if (target != null) {
 				return getTarget().getMatchingFiles(def.getExtensions());
-			} else return new ArrayList<ProjectDirEntry>();
+			} else return new MatchList();
 		} else return projectFolder.getMatchingFiles(def.getExtensions());
 	}
 
@@ -160,10 +185,7 @@ public class ProjectProperty {
 	 * @throws Throwable 
 	 */
 	public ProjectPropertyExtension getMatchingExtension(ProjectDirEntry file) throws Throwable {
-		for (ProjectPropertyExtension ext : def.getExtensions()) {
-			if (file.getExtension().toLowerCase().equals(ext.getExtension().toLowerCase())) return ext;
-		}
-		return null;
+		return def.getExtension(file.getLowerCaseExtension());
 	}
 	
 	/**
@@ -173,10 +195,8 @@ public class ProjectProperty {
 	 * @throws Throwable 
 	 */
 	public boolean hasQualifyingExtensions() throws Throwable {
-		for(ProjectDirEntry file : matchingFiles) {
-			if (getMatchingExtension(file).isQualifying()) {
-				return true;
-			}
+		for (int i = 0; i < matchCounts.length; i++) {
+			if (matchCounts[i] > 0 && getMatchingExtension(i).isQualifying()) return true;
 		}
 		return false;
 	}
@@ -196,12 +216,44 @@ public class ProjectProperty {
 		return false;
 	}
 
+	/**
+	 * Returns the extension which triggers the files counted for the extension at the given
+	 * index (the first definition of the same extension, see getMatchingExtension(file)).
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public ProjectPropertyExtension getMatchingExtension(int index) {
+		return def.getExtension(def.getExtensions().get(index).getLowerCaseExtension());
+	}
+	
+	/**
+	 * Returns the number of matching files for each extension of the definition, in the order of the extensions.
+	 * 
+	 * @return
+	 */
+	public int[] getMatchCounts() {
+		return matchCounts;
+	}
+	
+	/**
+	 * Returns the number of matching files
+	 * 
+	 * @return
+	 */
+	public int getMatchCount() {
+		return matchCount;
+	}
+
 	/**
 	 * Returns the matching files (files inside the target if defined or the project folder) for the property´s extensions.
+	 * The list is built on each call, so it should only be requested for single projects.
 	 * 
 	 * @return
+	 * @throws Throwable 
 	 */
-	public List<ProjectDirEntry> getMatchingFiles() {
-		return matchingFiles;
+	public List<ProjectDirEntry> getMatchingFiles() throws Throwable {
+		if (matchCounts == null) return null;
+		return loadMatchingFiles();
 	}
 }
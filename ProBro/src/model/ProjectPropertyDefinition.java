@@ -1,6 +1,9 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Definition of a project property
@@ -20,6 +23,17 @@ public class ProjectPropertyDefinition {
 	 */
 	private List<ProjectPropertyTarget> targets = null;
 	
+	/**
+	 * Targets by lower case file name, in definition order
+	 */
+	private Map<String, List<ProjectPropertyTarget>> targetsByName = new HashMap<String, List<ProjectPropertyTarget>>();
+	
+	/**
+	 * Extensions by lower case extension. If an extension is defined more than once,
+	 * the first definition is used.
+	 */
+	private Map<String, ProjectPropertyExtension> extensionsByName = new HashMap<String, ProjectPropertyExtension>();
+	
 	/**
 	 * Column header
 	 */
@@ -29,6 +43,21 @@ public class ProjectPropertyDefinition {
 		this.targets = targets;
 		this.extensions = extensions;
 		this.header = header;
+		
+		for(ProjectPropertyTarget t : targets) {
+			String name = t.getFileName().toLowerCase();
+			List<ProjectPropertyTarget> list = targetsByName.get(name);
+			if (list == null) {
+				list = new ArrayList<ProjectPropertyTarget>();
+				targetsByName.put(name, list);
+			}
+			list.add(t);
+		}
+		for(ProjectPropertyExtension e : extensions) {
+			if (!extensionsByName.containsKey(e.getLowerCaseExtension())) {
+				extensionsByName.put(e.getLowerCaseExtension(), e);
+			}
+		}
 	}
 	
 	/**
@@ -40,6 +69,16 @@ public class ProjectPropertyDefinition {
 		return targets;
 	}
 	
+	/**
+	 * Returns the targets with the given (lower case) file name, or null if there are none.
+	 * 
+	 * @param lowerCaseName
+	 * @return
+	 */
+	public List<ProjectPropertyTarget> getTargets(String lowerCaseName) {
+		return targetsByName.get(lowerCaseName);
+	}
+	
 	/**
 	 * Returns the defined extensions for this property
 	 * 
@@ -49,6 +88,16 @@ public class ProjectPropertyDefinition {
 		return extensions;
 	}
 	
+	/**
+	 * Returns the (first) extension definition for the given lower case extension, or null.
+	 * 
+	 * @param lowerCaseExtension
+	 * @return
+	 */
+	public ProjectPropertyExtension getExtension(String lowerCaseExtension) {
+		return extensionsByName.get(lowerCaseExtension);
+	}
+	
 	/**
 	 * Returns the column header for this counter
 	 * 
@@ -11,12 +11,14 @@ import java.awt.Color;
 public class ProjectPropertyExtension {
 	
 	private String extension;
+	private String lowerCaseExtension;
 	private Color bgColor;
 	private boolean isQualifying; 
 	private boolean recursiveSearch; 
 	
 	public ProjectPropertyExtension(String extension, Color bgColor, boolean isQualifying, boolean recursiveSearch) {
 		this.extension = extension;
+		this.lowerCaseExtension = extension.toLowerCase().intern();
 		this.bgColor = bgColor;
 		this.isQualifying = isQualifying;
 		this.recursiveSearch = recursiveSearch;
@@ -26,6 +28,15 @@ public class ProjectPropertyExtension {
 		return extension;
 	}
 	
+	/**
+	 * Returns the extension in lower case, as used for matching
+	 * 
+	 * @return
+	 */
+	public String getLowerCaseExtension() {
+		return lowerCaseExtension;
+	}
+	
 	public Color getBgColor() {
 		return bgColor;
 	}
@@ -0,0 +1,165 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of one project search: All projects and leftover folders found, in the order of
+ * a pre-order walk of the folder tree. As the results of each sub folder are contiguous in
+ * this order, the folders of the searched tree just hold their ranges in these lists (see
+ * ProjectDirEntry.getProjectList()), instead of copies for each level.
+ *
+ * A listener can be notified of each result as soon as it has been added.
+ *
+ * If the leftovers are aggregated, only the outermost leftover folders are kept (the ones
+ * whose parent folder is no leftover), their sizes cover all leftovers inside. The leftovers
+ * inside are listed on demand when the user drills down (see
+ * ProjectDirEntry.getProjectLeftoversList()), so deep leftover trees do not fill the list.
+ *
+ * @author tweber
+ *
+ */
+public class ProjectResults {
+
+	/**
+	 * Listener for results found by the search. The calls are made in the searching thread.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * A project or leftover folder has been found (see ProjectDirEntry.isProject()).
+		 *
+		 * @param entry
+		 * @throws Throwable
+		 */
+		public void found(ProjectDirEntry entry) throws Throwable;
+	}
+
+	/**
+	 * Projects found
+	 */
+	private List<ProjectDirEntry> projects = new ArrayList<ProjectDirEntry>();
+
+	/**
+	 * Folders which are no projects, and not contained in a project
+	 */
+	private List<ProjectDirEntry> leftovers = new ArrayList<ProjectDirEntry>();
+
+	/**
+	 * Listener, or null
+	 */
+	private Listener listener;
+
+	/**
+	 * Only keep the outermost leftovers?
+	 */
+	private boolean aggregated;
+
+	public ProjectResults(Listener listener, boolean aggregated) {
+		this.listener = listener;
+		this.aggregated = aggregated;
+	}
+
+	/**
+	 * Are only the outermost leftovers kept?
+	 *
+	 * @return
+	 */
+	public boolean isAggregated() {
+		return aggregated;
+	}
+
+	/**
+	 * Add the folder, if it is a project or a leftover of the search from root.
+	 *
+	 * @param entry
+	 * @param root
+	 * @throws Throwable
+	 */
+	void add(ProjectDirEntry entry, ProjectDirEntry root) throws Throwable {
+		if (entry.isProject()) {
+			projects.add(entry);
+		} else if (entry.isLeftoverOf(root)) {
+			entry.setProjectLeftover();
+			if (!isListed(entry)) return;
+			leftovers.add(entry);
+		} else {
+			return;
+		}
+		if (listener != null) listener.found(entry);
+	}
+
+	/**
+	 * Add the results of a folder which has been searched before
+	 *
+	 * @param entry
+	 * @throws Throwable
+	 */
+	void addAll(ProjectDirEntry entry) throws Throwable {
+		for (ProjectDirEntry p : entry.getProjectList()) {
+			projects.add(p);
+			if (listener != null) listener.found(p);
+		}
+		for (ProjectDirEntry p : entry.getProjectLeftoversList()) {
+			if (!isListed(p)) continue;
+			leftovers.add(p);
+			if (listener != null) listener.found(p);
+		}
+	}
+
+	/**
+	 * Returns if the leftover is listed: Always, if the leftovers are not aggregated, 
+	 * else only if its parent is no leftover.
+	 *
+	 * @param leftover
+	 * @return
+	 * @throws Throwable
+	 */
+	private boolean isListed(ProjectDirEntry leftover) throws Throwable {
+		if (!aggregated) return true;
+		return !(leftover.parent instanceof ProjectDirEntry) || !((ProjectDirEntry)leftover.parent).isProjectLeftover();
+	}
+
+	/**
+	 * Returns the number of projects found so far
+	 *
+	 * @return
+	 */
+	int getProjectCount() {
+		return projects.size();
+	}
+
+	/**
+	 * Returns the number of leftovers found so far
+	 *
+	 * @return
+	 */
+	int getLeftoverCount() {
+		return leftovers.size();
+	}
+
+	/**
+	 * Returns the projects in the given range (read-only)
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	List<ProjectDirEntry> getProjects(int from, int to) {
+		return Collections.unmodifiableList(projects.subList(from, to));
+	}
+
+	/**
+	 * Returns the leftovers in the given range (read-only)
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	List<ProjectDirEntry> getLeftovers(int from, int to) {
+		return Collections.unmodifiableList(leftovers.subList(from, to));
+	}
+}
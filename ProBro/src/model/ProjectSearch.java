@@ -0,0 +1,168 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detection engine for the project search. Before the projects are searched, the whole
+ * folder tree is visited once in pre-order, and each file or folder is appended to the
+ * match list of its extension (only the extensions used by the project definition are
+ * regarded). For each folder, the range of its contents in these lists is stored. As a
+ * folder and all its contents are visited in one piece, the recursive matches of any
+ * folder for an extension are exactly this range of the match list, in the same order
+ * as a recursive search of the folder would return them.
+ *
+ * This way, the matching files of all folders are available without searching the
+ * sub trees again for each folder and each extension. The lists are only held while the
+ * search is running (see ProjectDirEntry.releaseSearch()). In the same pass, the latest
+ * modification of each folder's contents is collected (see 
+ * ProjectDirEntry.getProjectLastModified()).
+ *
+ * @author tweber
+ *
+ */
+public class ProjectSearch {
+
+	/**
+	 * Ids of the (lower case) extensions regarded
+	 */
+	private Map<String, Integer> extensionIds = new HashMap<String, Integer>();
+
+	/**
+	 * Match lists by extension id, in pre-order of the folder tree
+	 */
+	private List<List<ProjectDirEntry>> matches = new ArrayList<List<ProjectDirEntry>>();
+
+	public ProjectSearch(ProjectDefinition definition) {
+		for(ProjectPropertyDefinition d : definition.getPropertyDefinitions()) {
+			for(ProjectPropertyExtension e : d.getExtensions()) {
+				String ext = e.getLowerCaseExtension();
+				if (!extensionIds.containsKey(ext)) {
+					extensionIds.put(ext, matches.size());
+					matches.add(new ArrayList<ProjectDirEntry>());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visit the entry and all its contents, and collect the matches.
+	 *
+	 * @param entry
+	 * @return latest modification time of the entry and all its contents
+	 * @throws Throwable
+	 */
+	public long scan(ProjectDirEntry entry) throws Throwable {
+		entry.setSearch(this);
+
+		int[] ranges = null;
+		if (entry.isDirectory()) {
+			ranges = new int[matches.size() * 2];
+			for (int i = 0; i < matches.size(); i++) {
+				ranges[i*2] = matches.get(i).size();
+			}
+		}
+
+		Integer id = extensionIds.get(entry.getLowerCaseExtension());
+		if (id != null) matches.get(id).add(entry);
+
+		long latest = entry.lastModified();
+		if (ranges != null) {
+			for (DirEntry c : entry.getChildren()) {
+				latest = Math.max(latest, scan((ProjectDirEntry)c));
+			}
+			for (int i = 0; i < matches.size(); i++) {
+				ranges[i*2+1] = matches.get(i).size();
+			}
+			entry.setMatchRanges(ranges);
+			entry.setProjectLastModified(latest);
+		}
+		return latest;
+	}
+
+	/**
+	 * Returns the matches for the given extension inside the entry (including the entry
+	 * itself). If the extension is not recursive, only the entry and its direct children
+	 * are regarded.
+	 *
+	 * @param entry
+	 * @param extension
+	 * @return
+	 * @throws Throwable
+	 */
+	public List<ProjectDirEntry> getMatches(ProjectDirEntry entry, ProjectPropertyExtension extension) throws Throwable {
+		int id = extensionIds.get(extension.getLowerCaseExtension());
+		int[] ranges = entry.getMatchRanges();
+
+		if (ranges == null) {
+			// File: Just the file itself
+			if (entry.getLowerCaseExtension().equals(extension.getLowerCaseExtension())) {
+				return Collections.singletonList(entry);
+			}
+			return Collections.emptyList();
+		}
+
+		if (extension.isRecursive()) {
+			return Collections.unmodifiableList(matches.get(id).subList(ranges[id*2], ranges[id*2+1]));
+		}
+
+		// Not recursive: Folder itself and its direct children
+		List<ProjectDirEntry> ret = new ArrayList<ProjectDirEntry>();
+		if (ranges[id*2] == ranges[id*2+1]) return ret;
+		
+		String ext = extension.getLowerCaseExtension();
+		if (entry.getLowerCaseExtension().equals(ext)) ret.add(entry);
+		for (DirEntry c : entry.getChildren()) {
+			ProjectDirEntry p = (ProjectDirEntry)c;
+			if (p.getLowerCaseExtension().equals(ext)) ret.add(p);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the number of matches for the given extension inside the entry (see getMatches()),
+	 * without building the list.
+	 *
+	 * @param entry
+	 * @param extension
+	 * @return
+	 * @throws Throwable
+	 */
+	public int getMatchCount(ProjectDirEntry entry, ProjectPropertyExtension extension) throws Throwable {
+		int id = extensionIds.get(extension.getLowerCaseExtension());
+		int[] ranges = entry.getMatchRanges();
+		String ext = extension.getLowerCaseExtension();
+
+		if (ranges == null) return entry.getLowerCaseExtension().equals(ext) ? 1 : 0;
+		if (extension.isRecursive()) return ranges[id*2+1] - ranges[id*2];
+
+		// Not recursive: Folder itself and its direct children
+		int ret = 0;
+		if (ranges[id*2] == ranges[id*2+1]) return ret;
+
+		if (entry.getLowerCaseExtension().equals(ext)) ret++;
+		for (DirEntry c : entry.getChildren()) {
+			if (((ProjectDirEntry)c).getLowerCaseExtension().equals(ext)) ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns if there is any match for the extension inside the folder (including the
+	 * folder itself, and regardless if the extension is recursive).
+	 *
+	 * @param entry
+	 * @param extension
+	 * @return
+	 * @throws Throwable
+	 */
+	public boolean hasMatches(ProjectDirEntry entry, ProjectPropertyExtension extension) throws Throwable {
+		int id = extensionIds.get(extension.getLowerCaseExtension());
+		int[] ranges = entry.getMatchRanges();
+		if (ranges == null) return entry.getLowerCaseExtension().equals(extension.getLowerCaseExtension());
+		return ranges[id*2] < ranges[id*2+1];
+	}
+}
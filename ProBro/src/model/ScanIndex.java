@@ -0,0 +1,366 @@
+package model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.Messages;
+
+/**
+ * Persistent index of deep folder data. For each fully loaded folder, the modification date,
+ * the sizes of the files directly inside it, the names of its sub folders and the deep sizes
+ * and counts are stored. When a folder is loaded fully again (also in a later session), and
+ * its modification date is unchanged, it does not have to be listed again: Only its sub folders
+ * are checked the same way, so only folders with a changed modification date are scanned
+ * again, and the sizes of all others are taken from the index.
+ *
+ * Warm start: Folders shown in the file browser which are in the index are loaded fully this 
+ * way in the background (see MainPanel.loadIndexedSizes()), also right after the start and 
+ * after reloading the tree. So their deep sizes show up without "Load deep info".
+ *
+ * CAUTION: The modification date of a folder only changes if files are added, removed or
+ * renamed, not if a file inside the folder is changed in place (for example a growing render 
+ * or bounce file). Checking the own files would mean listing the folder, which the index is 
+ * meant to avoid, so deep sizes taken from the index can be stale for such folders until they 
+ * are refreshed: Folders which have been refreshed in ProBro, or changed while watched (see 
+ * DirWatcher), are removed from the index (see DirEntry.revalidate()).
+ *
+ * Project search results are not stored: Searching projects again walks the folders, only the 
+ * deep sizes of the projects are taken from the index.
+ *
+ * When a folder is stored again, the records of the sub folders it does not contain anymore 
+ * are removed with all records below them, so the index does not grow by deleted or renamed 
+ * folders. The index is only written if it has changed, from a copy, so the scans are not 
+ * blocked while it is written.
+ *
+ * @author tweber
+ *
+ */
+public class ScanIndex implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Index records by absolute folder path
+	 */
+	private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/**
+	 * File to store the index
+	 */
+	private transient File file;
+
+	/**
+	 * Has the index changed since it has been stored?
+	 */
+	private transient boolean changed = false;
+
+	/**
+	 * Modification time of removed records (see remove())
+	 */
+	private static final long REMOVED = Long.MIN_VALUE;
+
+	/**
+	 * Lock for writing the index file, one store() at a time
+	 */
+	private static final Object STORE_LOCK = new Object();
+
+	/**
+	 * Index record of one folder
+	 *
+	 * @author tweber
+	 *
+	 */
+	public static class Entry implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Modification time of the folder when it has been scanned
+		 */
+		private long modified;
+
+		/**
+		 * Size and number of the files directly inside the folder
+		 */
+		private long ownSize;
+		private long ownFiles;
+
+		/**
+		 * Names of the sub folders
+		 */
+		private String[] folders;
+
+		/**
+		 * Deep data (see DirEntry)
+		 */
+		private long size;
+		private long numOfFiles;
+		private long numOfFolders;
+
+		/**
+		 * Has the deep data been checked (or scanned) in this session?
+		 */
+		private transient boolean validated = false;
+
+		/**
+		 * Returns the size of the files directly inside the folder
+		 *
+		 * @return
+		 */
+		public long getOwnSize() {
+			return ownSize;
+		}
+
+		/**
+		 * Returns the number of files directly inside the folder
+		 *
+		 * @return
+		 */
+		public long getOwnFiles() {
+			return ownFiles;
+		}
+
+		/**
+		 * Returns the names of the sub folders
+		 *
+		 * @return
+		 */
+		public String[] getFolders() {
+			return folders;
+		}
+
+		/**
+		 * Deep size of the folder
+		 *
+		 * @return
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Deep number of files
+		 *
+		 * @return
+		 */
+		public long getNumOfFiles() {
+			return numOfFiles;
+		}
+
+		/**
+		 * Deep number of folders
+		 *
+		 * @return
+		 */
+		public long getNumOfFolders() {
+			return numOfFolders;
+		}
+
+		/**
+		 * Does the record hold the same data as the given one?
+		 *
+		 * @param e
+		 * @return
+		 */
+		private boolean isSame(Entry e) {
+			return modified == e.modified && ownSize == e.ownSize && ownFiles == e.ownFiles && size == e.size 
+					&& numOfFiles == e.numOfFiles && numOfFolders == e.numOfFolders && Arrays.equals(folders, e.folders);
+		}
+	}
+
+	private ScanIndex(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Load the index from the given file. If the file does not exist or can not be read,
+	 * an empty index is returned, which will be stored to the file later.
+	 *
+	 * @param file
+	 * @return
+	 * @throws Throwable
+	 */
+	public static ScanIndex load(File file) throws Throwable {
+		if (file.exists()) {
+			try (FileInputStream fileIn = new FileInputStream(file); ObjectInputStream in = new ObjectInputStream(fileIn)) {
+				ScanIndex ret = (ScanIndex)in.readObject();
+				ret.file = file;
+				return ret;
+
+			} catch (Exception e) {
+				// Outdated or broken index: Start a new one
+				System.out.println(Messages.getString("Msg_ScanIndexReset", file.getAbsolutePath(), e)); //$NON-NLS-1$
+			}
+		}
+		return new ScanIndex(file);
+	}
+
+	/**
+	 * Store the index, if it has changed. A copy of the records is written, so the index
+	 * can be used meanwhile. It is written to a temporary file first, which then replaces 
+	 * the index file, so the index file is never left half written.
+	 *
+	 */
+	public void store() throws Throwable {
+		synchronized(STORE_LOCK) {
+			ScanIndex copy = new ScanIndex(file);
+			synchronized(this) {
+				if (!changed) return;
+				copy.entries = new HashMap<String, Entry>(entries);
+				changed = false;
+			}
+			
+			try {
+				File temp = new File(file.getPath() + ".new"); //$NON-NLS-1$
+				try (FileOutputStream fileOut = new FileOutputStream(temp); ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
+					out.writeObject(copy);
+				}
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				
+			} catch (Throwable t) {
+				// Try again next time
+				synchronized(this) {
+					changed = true;
+				}
+				throw t;
+			}
+		}
+	}
+
+	/**
+	 * Is there a record of the folder? Does not access the file system.
+	 *
+	 * @param dir
+	 * @return
+	 */
+	public synchronized boolean contains(DirEntry dir) {
+		Entry e = entries.get(dir.getAbsolutePath());
+		return e != null && e.modified != REMOVED;
+	}
+
+	/**
+	 * Returns the record of the folder if the folder has not been modified since it has been
+	 * indexed, or null. The deep data of the record is only valid after the sub folders 
+	 * have been checked, too (the caller stores the folder again by put() then). Files 
+	 * changed in place are not detected (see above).
+	 *
+	 * @param dir
+	 * @return
+	 */
+	public synchronized Entry getUnchanged(DirEntry dir) {
+		Entry e = entries.get(dir.getAbsolutePath());
+		if (e == null || e.modified != dir.lastModified()) return null;
+		return e;
+	}
+
+	/**
+	 * Returns the record of the folder, if its deep data is up to date (meaning it has been
+	 * checked or scanned in this session).
+	 *
+	 * @param dir
+	 * @return
+	 */
+	public synchronized Entry getValidated(DirEntry dir) {
+		Entry e = entries.get(dir.getAbsolutePath());
+		if (e == null || !e.validated || e.modified != dir.lastModified()) return null;
+		return e;
+	}
+
+	/**
+	 * Store a fully loaded folder whose children have been listed.
+	 *
+	 * @param dir
+	 * @param children
+	 * @throws Throwable
+	 */
+	public void put(DirEntry dir, List<DirEntry> children) throws Throwable {
+		long ownSize = 0;
+		long ownFiles = 0;
+		List<String> folders = new ArrayList<String>();
+		for (DirEntry c : children) {
+			if (c.isDirectory()) {
+				folders.add(c.getName());
+			} else {
+				ownSize += c.getSize();
+				ownFiles++;
+			}
+		}
+		put(dir, ownSize, ownFiles, folders.toArray(new String[folders.size()]));
+	}
+
+	/**
+	 * Store a fully loaded folder.
+	 *
+	 * @param dir
+	 * @param ownSize
+	 * @param ownFiles
+	 * @param folders
+	 * @throws Throwable
+	 */
+	public void put(DirEntry dir, long ownSize, long ownFiles, String[] folders) throws Throwable {
+		Entry e = new Entry();
+		e.modified = dir.lastModified();
+		e.ownSize = ownSize;
+		e.ownFiles = ownFiles;
+		e.folders = folders;
+		e.size = dir.getSize();
+		e.numOfFiles = dir.getNumOfFiles();
+		e.numOfFolders = dir.getNumOfFolders();
+		e.validated = true;
+
+		String path = dir.getAbsolutePath();
+		synchronized(this) {
+			Entry old = entries.put(path, e);
+			if (old != null && old.isSame(e)) return;
+			changed = true;
+			if (old == null) return;
+			
+			// Sub folders which are gone (deleted or renamed)
+			List<String> current = Arrays.asList(folders);
+			for (String name : old.folders) {
+				if (!current.contains(name)) removeTree(new File(path, name).getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * Remove the record of a folder, it will be scanned again next time. The names of its
+	 * sub folders are kept, so the records of the ones which are gone can be removed when the 
+	 * folder is stored again (see put()).
+	 *
+	 * @param dir
+	 */
+	public synchronized void remove(DirEntry dir) {
+		String path = dir.getAbsolutePath();
+		Entry e = entries.get(path);
+		if (e == null || e.modified == REMOVED) return;
+		
+		Entry r = new Entry();
+		r.modified = REMOVED;
+		r.folders = e.folders;
+		entries.put(path, r);
+		changed = true;
+	}
+
+	/**
+	 * Remove the records of a folder and all folders below it
+	 *
+	 * @param path
+	 */
+	private void removeTree(String path) {
+		Entry e = entries.remove(path);
+		if (e == null) return;
+		for (String name : e.folders) {
+			removeTree(new File(path, name).getAbsolutePath());
+		}
+	}
+}
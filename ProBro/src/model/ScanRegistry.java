@@ -0,0 +1,49 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the folders currently being loaded fully (see LoadFullyTask), keyed by their
+ * canonical paths (see DirEntry.getScanKey()). A scan which gets to a folder already being
+ * loaded by another scan (for example a worker on the parent of a folder which is still
+ * loaded by another worker) waits for that scan instead of walking the folder again. The
+ * results are taken over from the same DirEntry instance, or from the ScanIndex for other
+ * instances of the folder.
+ *
+ * @author tweber
+ *
+ */
+public class ScanRegistry {
+
+	/**
+	 * Running scans by key
+	 */
+	private Map<String, LoadFullyTask> running = new HashMap<String, LoadFullyTask>();
+
+	/**
+	 * Register the given task as the scan of the folder with the given key, if no other
+	 * scan of the folder is running.
+	 *
+	 * @param key
+	 * @param task
+	 * @return null if registered, or the task already scanning the folder
+	 */
+	public synchronized LoadFullyTask claim(String key, LoadFullyTask task) {
+		LoadFullyTask other = running.get(key);
+		if (other != null && other != task) return other;
+
+		running.put(key, task);
+		return null;
+	}
+
+	/**
+	 * Remove the given task from the registry, when it has finished the folder
+	 *
+	 * @param key
+	 * @param task
+	 */
+	public synchronized void release(String key, LoadFullyTask task) {
+		if (running.get(key) == task) running.remove(key);
+	}
+}
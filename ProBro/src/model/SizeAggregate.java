@@ -0,0 +1,155 @@
+package model;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated deep sizes of a list of folders, for example the projects found in a folder
+ * (see ProjectDirEntry.getProjectSizes()): The largest, the sum and the number of the
+ * folders which are fully loaded. The aggregates are built once, and then maintained
+ * incrementally, as each folder of the list reports changes of its deep data (see
+ * DirEntry.deepDataChanged()). So they can be requested for each table cell.
+ *
+ * @author tweber
+ *
+ * @param <T>
+ */
+public class SizeAggregate<T extends DirEntry> {
+
+	/**
+	 * Folders, in list order
+	 */
+	private List<T> entries;
+
+	/**
+	 * Sizes counted for each folder, -1 if not fully loaded
+	 */
+	private Map<T, Long> counted = new IdentityHashMap<T, Long>();
+
+	/**
+	 * Largest fully loaded folder, or null
+	 */
+	private T largest = null;
+
+	/**
+	 * Size of the largest folder
+	 */
+	private long largestSize = -1;
+
+	/**
+	 * Sum of the sizes of all fully loaded folders
+	 */
+	private long sum = 0;
+
+	/**
+	 * Number of fully loaded folders
+	 */
+	private int count = 0;
+
+	/**
+	 * Creates the aggregates of the given folders. The folders have to register
+	 * the instance, so it gets their updates (see ProjectDirEntry.addSizeAggregate()).
+	 *
+	 * @param entries
+	 */
+	public SizeAggregate(List<T> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Count the current sizes of all folders. Called after the folders have registered the
+	 * instance, so no update gets lost in between.
+	 *
+	 */
+	synchronized void build() {
+		for (T e : entries) {
+			counted.put(e, -1L);
+			update(e);
+		}
+	}
+
+	/**
+	 * The deep data of the given folder has changed: Update the aggregates with its current size.
+	 *
+	 * @param entry
+	 */
+	synchronized void update(T entry) {
+		Long old = counted.get(entry);
+		if (old == null) return;
+
+		long size = entry.getDeepSize();
+		if (size == old) return;
+		counted.put(entry, size);
+
+		if (old > -1) {
+			sum -= old;
+			count--;
+		}
+		if (size > -1) {
+			sum += size;
+			count++;
+		}
+
+		if (size > -1 && size >= largestSize) {
+			largest = entry;
+			largestSize = size;
+		} else if (entry == largest) {
+			// The largest one has shrunk: Search again
+			findLargest();
+		}
+	}
+
+	/**
+	 * Search the largest folder among the counted sizes. Like a linear search of the list,
+	 * the last one wins if several have the same size.
+	 *
+	 */
+	private void findLargest() {
+		largest = null;
+		largestSize = -1;
+		for (T e : entries) {
+			long size = counted.get(e);
+			if (size > -1 && size >= largestSize) {
+				largest = e;
+				largestSize = size;
+			}
+		}
+	}
+
+	/**
+	 * Returns the largest of the fully loaded folders, or null
+	 *
+	 * @return
+	 */
+	public synchronized T getLargest() {
+		return largest;
+	}
+
+	/**
+	 * Returns the size of the largest fully loaded folder, or -1
+	 *
+	 * @return
+	 */
+	public synchronized long getLargestSize() {
+		return largestSize;
+	}
+
+	/**
+	 * Returns the sum of the sizes of all fully loaded folders
+	 *
+	 * @return
+	 */
+	public synchronized long getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the number of fully loaded folders
+	 *
+	 * @return
+	 */
+	public synchronized int getCount() {
+		return count;
+	}
+}
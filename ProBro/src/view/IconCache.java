@@ -0,0 +1,341 @@
+package view;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.Icon;
+import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+import main.Main;
+import main.Utils;
+
+/**
+ * Cache for the system icons and display names of files, which are expensive to look up.
+ * Icons are shared by all files of the same kind (folder or file) and extension, except for
+ * special folders (file system roots, home folder) and files with individual icons (for
+ * example applications), which are cached by path. Display names are cached by path. Both
+ * caches are bounded, the least recently used entries are dropped.
+ *
+ * Lookups which are not cached yet return a default icon or the plain file name at once,
+ * and are done by a background thread. The listeners are notified on the EDT when lookups
+ * have been done, so the views can be repainted.
+ *
+ * @author tweber
+ *
+ */
+public class IconCache implements Runnable {
+
+	/**
+	 * Listener interface for finished lookups. All calls are made on the EDT.
+	 *
+	 * @author tweber
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * Icons or names have been looked up since the last call
+		 *
+		 * @throws Throwable
+		 */
+		public void loaded() throws Throwable;
+	}
+
+	/**
+	 * Max. number of cached icons
+	 */
+	private static final int MAX_ICONS = 1000;
+
+	/**
+	 * Max. number of cached display names
+	 */
+	private static final int MAX_NAMES = 20000;
+
+	/**
+	 * Extensions of files (or bundle folders) which have individual icons
+	 */
+	private static final String[] INDIVIDUAL_EXTENSIONS = {"exe", "lnk", "ico", "url", "app"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	/**
+	 * Icons by key (see getIconKey())
+	 */
+	private Map<String, Icon> icons = new LruMap<String, Icon>(MAX_ICONS);
+
+	/**
+	 * Display names by path
+	 */
+	private Map<String, String> names = new LruMap<String, String>(MAX_NAMES);
+
+	/**
+	 * Paths of special folders, whose icons are cached by path
+	 */
+	private Set<String> specialPaths = new HashSet<String>();
+
+	/**
+	 * Extensions with individual icons
+	 */
+	private Set<String> individualExtensions = new HashSet<String>();
+
+	/**
+	 * Pending icon lookups by key, in request order
+	 */
+	private Map<String, File> iconRequests = new LinkedHashMap<String, File>();
+
+	/**
+	 * Pending name lookups by path, in request order
+	 */
+	private Map<String, File> nameRequests = new LinkedHashMap<String, File>();
+
+	/**
+	 * Listeners
+	 */
+	private List<Listener> listeners = new ArrayList<Listener>();
+
+	/**
+	 * Is a notification of the listeners pending?
+	 */
+	private boolean notifying = false;
+
+	/**
+	 * Lookup thread (started on first request)
+	 */
+	private Thread thread = null;
+
+	/**
+	 * Default icons
+	 */
+	private Icon folderIcon = UIManager.getIcon("FileView.directoryIcon"); //$NON-NLS-1$
+	private Icon fileIcon = UIManager.getIcon("FileView.fileIcon"); //$NON-NLS-1$
+
+	/**
+	 * Helper to get nice file icons
+	 */
+	private JFileChooser j = new JFileChooser();
+
+	public IconCache() throws Throwable {
+		for (File root : Utils.getFileSystemView().getRoots()) {
+			specialPaths.add(root.getAbsolutePath());
+		}
+		for (File root : File.listRoots()) {
+			specialPaths.add(root.getAbsolutePath());
+		}
+		specialPaths.add(Utils.getFileSystemView().getHomeDirectory().getAbsolutePath());
+		specialPaths.add(Utils.getFileSystemView().getDefaultDirectory().getAbsolutePath());
+
+		for (String e : INDIVIDUAL_EXTENSIONS) {
+			individualExtensions.add(e);
+		}
+	}
+
+	/**
+	 * Add a listener for finished lookups
+	 *
+	 * @param listener
+	 */
+	public synchronized void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Returns the icon of the file. If it is not cached yet, a default icon is returned,
+	 * and the icon is looked up in the background.
+	 *
+	 * @param file
+	 * @return
+	 * @throws Throwable
+	 */
+	public synchronized Icon getIcon(File file) throws Throwable {
+		if (file == null) return null;
+
+		boolean dir = file.isDirectory();
+		String key = getIconKey(file, dir);
+		Icon icon = icons.get(key);
+		if (icon != null) return icon;
+
+		if (!iconRequests.containsKey(key)) {
+			iconRequests.put(key, file);
+			request();
+		}
+		return dir ? folderIcon : fileIcon;
+	}
+
+	/**
+	 * Returns the display name of the file. If it is not cached yet, the file name is
+	 * returned, and the display name is looked up in the background.
+	 *
+	 * @param file
+	 * @return
+	 * @throws Throwable
+	 */
+	public synchronized String getDisplayName(File file) throws Throwable {
+		if (file == null) return ""; //$NON-NLS-1$
+
+		String path = file.getAbsolutePath();
+		String name = names.get(path);
+		if (name != null) return name;
+
+		if (!nameRequests.containsKey(path)) {
+			nameRequests.put(path, file);
+			request();
+		}
+		return (file.getName().length() > 0) ? file.getName() : file.getPath();
+	}
+
+	/**
+	 * Returns the cache key for the icon of the file: Kind and extension, or the path
+	 * for special folders and files with individual icons.
+	 *
+	 * @param file
+	 * @param dir
+	 * @return
+	 */
+	private String getIconKey(File file, boolean dir) {
+		String path = file.getAbsolutePath();
+		String ext = getLowerCaseExtension(file.getName());
+		if (specialPaths.contains(path) || individualExtensions.contains(ext)) return "p:" + path; //$NON-NLS-1$
+		return (dir ? "d:" : "f:") + ext; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the lower case extension of a file name, or an empty string
+	 *
+	 * @param name
+	 * @return
+	 */
+	private static String getLowerCaseExtension(String name) {
+		int dot = name.lastIndexOf('.');
+		if (dot < 0) return ""; //$NON-NLS-1$
+		return name.substring(dot + 1).toLowerCase();
+	}
+
+	/**
+	 * Wake up the lookup thread, start it if not running yet
+	 *
+	 */
+	private void request() {
+		if (thread == null) {
+			thread = new Thread(this, "IconCache"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Lookup thread: Looks up the requested icons and names, and notifies the listeners
+	 * when there is nothing left to do.
+	 *
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				String key = null;
+				File file = null;
+				boolean icon;
+				synchronized (this) {
+					while (iconRequests.isEmpty() && nameRequests.isEmpty()) {
+						wait();
+					}
+					// Icons first, they are shared by many files
+					icon = !iconRequests.isEmpty();
+					Map<String, File> requests = icon ? iconRequests : nameRequests;
+					key = requests.keySet().iterator().next();
+					file = requests.remove(key);
+				}
+
+				// Failed lookups are cached with the defaults, so they are not repeated
+				if (icon) {
+					Icon i = null;
+					try {
+						i = j.getUI().getFileView(j).getIcon(file);
+					} catch (Throwable t) {
+						// No icon available: Use the default
+					}
+					if (i == null) i = file.isDirectory() ? folderIcon : fileIcon;
+					synchronized (this) {
+						icons.put(key, i);
+					}
+				} else {
+					String n = null;
+					try {
+						n = Utils.getFileSystemView().getSystemDisplayName(file);
+					} catch (Throwable t) {
+						// No display name available: Use the file name
+					}
+					if (n == null || n.length() == 0) n = (file.getName().length() > 0) ? file.getName() : file.getPath();
+					synchronized (this) {
+						names.put(key, n);
+					}
+				}
+
+				synchronized (this) {
+					if (iconRequests.isEmpty() && nameRequests.isEmpty()) deliver();
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		}
+	}
+
+	/**
+	 * Notify the listeners on the EDT (only one notification is pending at a time)
+	 *
+	 */
+	private synchronized void deliver() {
+		if (notifying) return;
+		notifying = true;
+
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<Listener> l;
+					synchronized (IconCache.this) {
+						notifying = false;
+						l = new ArrayList<Listener>(listeners);
+					}
+					for (Listener listener : l) {
+						listener.loaded();
+					}
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Map with limited size, dropping the least recently used entry
+	 *
+	 * @author tweber
+	 *
+	 * @param <K>
+	 * @param <V>
+	 */
+	private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Max. number of entries
+		 */
+		private int maxSize;
+
+		public LruMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -184,7 +184,7 @@ public class MainFrame extends JFrame {
 			Main.setProjectDefinition(file);
 			
 			this.setView(view);
-			mainPanel.refresh();
+			mainPanel.reload();
 			menuBar.setProjectsOptionsState();
 			
 		} catch (Throwable t) {
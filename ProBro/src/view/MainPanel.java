@@ -1,11 +1,21 @@
 package view;
 
 import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.swing.JPanel;
 import javax.swing.JSplitPane;
 import javax.swing.border.EmptyBorder;
+
+import main.Utils;
+import model.AttributeLoader;
+import model.DeepLoadQueue;
+import model.DirEntry;
+import model.DirWatcher;
 import view.details.DetailsPanel;
 import view.tree.Tree;
+import view.workers.LoadFullyWorker;
 import view.workers.WorkersPanel;
 
 /**
@@ -42,6 +52,16 @@ public class MainPanel extends JPanel {
 	 */
 	public WorkersPanel workers;                  
 	
+	/**
+	 * Live mode: Watches the folders whose deep data has been loaded
+	 */
+	private DirWatcher watcher;
+	
+	/**
+	 * Background loading of deep sizes for the project tables, and of indexed folders
+	 */
+	private DeepLoadQueue sizeQueue;
+	
 	/** 
 	 * Create the main GUI elements
 	 * 
@@ -66,15 +86,142 @@ public class MainPanel extends JPanel {
 		rightPane.setResizeWeight(1);
 		JSplitPane allPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, tree.treeScroll, rightPane);
 		add(allPane, BorderLayout.CENTER);
+		
+		// Patch tree and table on changes in the file system
+		watcher = new DirWatcher(new DirWatcher.Listener() {
+			@Override
+			public void childChanged(DirEntry folder, DirEntry child, int index, int change) throws Throwable {
+				tree.childChanged(folder, child, change);
+				details.table.childChanged(folder, index, change);
+				details.repaint();
+			}
+
+			@Override
+			public void folderChanged(DirEntry folder) throws Throwable {
+				refresh(folder);
+			}
+		});
+		
+		// Update tree and table when icons and names have been looked up in the background
+		Utils.getIconCache().addListener(new IconCache.Listener() {
+			@Override
+			public void loaded() throws Throwable {
+				tree.iconsLoaded();
+				details.table.iconsLoaded();
+				details.repaint();
+			}
+		});
+		
+		// Update the table and details when file attributes have been loaded in the background
+		Utils.getAttributeLoader().addListener(new AttributeLoader.Listener() {
+			@Override
+			public void loaded(List<DirEntry> entries) throws Throwable {
+				details.attributesLoaded(entries);
+			}
+		});
+		
+		// Update the table when sizes have been loaded in the background
+		sizeQueue = new DeepLoadQueue(new DeepLoadQueue.Listener() {
+			@Override
+			public void loaded(List<DirEntry> entries) throws Throwable {
+				details.table.sizesLoaded(entries);
+				details.repaint();
+			}
+		});
+	}
+	
+	/**
+	 * Load the deep sizes of the given folders in the background, see DeepLoadQueue
+	 * 
+	 * @param folders
+	 */
+	public void loadSizes(List<? extends DirEntry> folders) throws Throwable {
+		sizeQueue.add(folders);
+	}
+	
+	/**
+	 * Warm start: Load the deep sizes of the given folder and its listed sub folders in the 
+	 * background, as far as they are in the scan index. Only the folders modified since they
+	 * have been indexed are scanned again (see ScanIndex), so this is fast for unchanged trees.
+	 * 
+	 * @param folder
+	 */
+	public void loadIndexedSizes(DirEntry folder) throws Throwable {
+		if (folder == null || folder.isLoadingHiddenFiles()) return;
+		
+		List<DirEntry> folders = new ArrayList<DirEntry>();
+		List<DirEntry> children = folder.getLoadedChildren();
+		if (children != null) folders.addAll(children);
+		folders.add(folder);
+		sizeQueue.addIndexed(folders);
 	}
 	
 	/**
-	 * Reload file list and refresh GUI
+	 * Load the deep sizes of the given folders first (if queued), see DeepLoadQueue
+	 * 
+	 * @param folders
+	 */
+	public void prioritizeSizes(List<? extends DirEntry> folders) throws Throwable {
+		sizeQueue.prioritize(folders);
+	}
+	
+	/**
+	 * Start watching the given folder for changes (live mode), see DirWatcher
+	 * 
+	 * @param folder
+	 */
+	public void watch(DirEntry folder) throws Throwable {
+		watcher.watch(folder);
+	}
+	
+	/**
+	 * Refresh the current folder: Its attributes and children are read again (see 
+	 * DirEntry.revalidate()), and the tree and table are updated accordingly. If a file
+	 * is selected, its parent folder is refreshed. If the deep data of the folder had been 
+	 * loaded, it is loaded again, which only scans the changed folders (see ScanIndex). 
 	 * 
 	 */
 	public void refresh() throws Throwable {
+		DirEntry current = details.getCurrentFile();
+		if (current == null) return;
+		
+		DirEntry folder = (current.isDirectory() || current.isRoot()) ? current : current.getParentDirEntry();
+		boolean wasLoaded = folder.isFullyLoaded();
+		folder.revalidate();
+		tree.refreshNode(folder);
+		
+		details.table.setTableData(folder);
+		details.setFileDetails(current);
+		
+		if (wasLoaded && folder == current && !folder.isFullyLoaded()) {
+			new LoadFullyWorker(this).schedule();
+		}
+	}
+	
+	/**
+	 * Refresh a given folder (see refresh()). The table is only updated if it shows 
+	 * this folder currently.
+	 * 
+	 * @param folder
+	 */
+	public void refresh(DirEntry folder) throws Throwable {
+		folder.revalidate();
+		tree.refreshNode(folder);
+		
+		if (details.table.getDirEntry() == folder) details.table.setTableData(folder);
+		details.repaint();
+	}
+	
+	/**
+	 * Reload the whole file tree from the file system and refresh GUI. All loaded 
+	 * data (deep sizes, projects) is discarded.
+	 * 
+	 */
+	public void reload() throws Throwable {
 		String current = details.getCurrentFile().getAbsolutePath();
 		
+		watcher.clear();
+		sizeQueue.clear();
 		tree.initTree();
 		tree.reload(); 
 		
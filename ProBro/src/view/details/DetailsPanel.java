@@ -10,8 +10,8 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Date;
+import java.util.List;
 
-import javax.swing.Icon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
@@ -22,6 +22,10 @@ import javax.swing.JTextField;
 import javax.swing.JToolBar;
 import javax.swing.SwingConstants;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
 
 import view.MainPanel;
 import view.table.Table;
@@ -116,6 +120,31 @@ public class DetailsPanel extends JPanel {
 		}
 		table = new Table(gui, model);
 		tableScroll = new JScrollPane(table);
+		
+		// Load the attributes (file browser) or sizes (project tables) of the visible rows first,
+		// also after sorting
+		tableScroll.getViewport().addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				try {
+					prioritizeVisibleRows();
+					
+				} catch (Throwable t) {
+					Main.handleThrowable(t);
+				}
+			}
+		});
+		table.getRowSorter().addRowSorterListener(new RowSorterListener() {
+			@Override
+			public void sorterChanged(RowSorterEvent e) {
+				try {
+					if (e.getType() == RowSorterEvent.Type.SORTED) prioritizeVisibleRows();
+					
+				} catch (Throwable t) {
+					Main.handleThrowable(t);
+				}
+			}
+		});
 		Dimension d = tableScroll.getPreferredSize();
 		tableScroll.setPreferredSize(new Dimension((int) d.getWidth(), (int) d.getHeight() / 2));
 		add(tableScroll, BorderLayout.CENTER);
@@ -124,6 +153,19 @@ public class DetailsPanel extends JPanel {
 		revalidate();
 	}
 	
+	/**
+	 * Load the data of the visible rows first: The attributes in the file browser (see 
+	 * AttributeLoader), the deep sizes in the project tables (see DeepLoadQueue)
+	 * 
+	 */
+	private void prioritizeVisibleRows() throws Throwable {
+		if (selectedView == VIEW_FILEBROWSER) {
+			Utils.getAttributeLoader().prioritize(table.getVisibleDirEntries());
+		} else {
+			gui.prioritizeSizes(table.getVisibleDirEntries());
+		}
+	}
+	
 	/**
 	 * Creates the main details panel
 	 * 
@@ -309,24 +351,51 @@ public class DetailsPanel extends JPanel {
 	 */
 	public void setFileDetails(DirEntry file) throws Throwable {
 		currentFile = file;
-		Icon icon = Utils.getFileSystemView().getSystemIcon(file);
-		fileName.setIcon(icon);
-		fileName.setText(Utils.getFileSystemView().getSystemDisplayName(file));
 		path.setText(file.getPath());
-		date.setText(new Date(file.lastModified()).toString());
-		size.setText(file.getReadableSize()); 
-		type.setText(file.getType());
-		numFiles.setText(file.getNumOfFiles() >= 0 ? ""+file.getNumOfFiles() : Messages.getString("DirEntry.NotLoaded")); //$NON-NLS-1$ 
-		numFolders.setText(file.getNumOfFolders() >= 0 ? ""+file.getNumOfFolders() :Messages.getString("DirEntry.NotLoaded")); //$NON-NLS-1$
-		readable.setSelected(file.canRead());
-		writable.setSelected(file.canWrite());
-		executable.setSelected(file.canExecute());
-		isDirectory.setSelected(file.isDirectory());
+		updateDetails();
+
+		gui.repaint();
+	}
+	
+	/**
+	 * Update the shown details of the current file. Nothing is read from the file system 
+	 * here: Icon and name come from the IconCache, and attributes which have not been read 
+	 * yet are shown empty and loaded in the background (see attributesLoaded()).
+	 * 
+	 */
+	private void updateDetails() throws Throwable {
+		DirEntry file = currentFile;
+		FileAttributes attributes = file.getLoadedAttributes();
+		boolean access = (attributes != null) && attributes.isAccessLoaded();
+		if (!access) Utils.getAttributeLoader().load(file);
+		
+		String name = Utils.getIconCache().getDisplayName(file);
+		fileName.setText(name);
+		if (attributes != null) {
+			fileName.setIcon(Utils.getIconCache().getIcon(file));
+			date.setText(new Date(file.lastModified()).toString());
+			size.setText(file.getReadableSize()); 
+			type.setText(file.getType());
+			numFiles.setText(file.getNumOfFiles() >= 0 ? ""+file.getNumOfFiles() : Messages.getString("DirEntry.NotLoaded")); //$NON-NLS-1$ 
+			numFolders.setText(file.getNumOfFolders() >= 0 ? ""+file.getNumOfFolders() :Messages.getString("DirEntry.NotLoaded")); //$NON-NLS-1$
+			isDirectory.setSelected(file.isDirectory());
+		} else {
+			fileName.setIcon(null);
+			date.setText(""); //$NON-NLS-1$
+			size.setText(""); //$NON-NLS-1$
+			type.setText(""); //$NON-NLS-1$
+			numFiles.setText(""); //$NON-NLS-1$
+			numFolders.setText(""); //$NON-NLS-1$
+			isDirectory.setSelected(false);
+		}
+		readable.setSelected(access && file.canRead());
+		writable.setSelected(access && file.canWrite());
+		executable.setSelected(access && file.canExecute());
 		
 		// Set window title 
 		JFrame f = (JFrame)gui.getTopLevelAncestor();
 		if (f != null) {
-			f.setTitle(Messages.getString("Main.ApplicationTitle") + " :: " + Utils.getFileSystemView().getSystemDisplayName(file)); //$NON-NLS-1$
+			f.setTitle(Messages.getString("Main.ApplicationTitle") + " :: " + name); //$NON-NLS-1$
 		}
 		
 		// Set fully loaded button state
@@ -349,8 +418,24 @@ public class DetailsPanel extends JPanel {
 			gui.details.loadFully.setEnabled(false);  
 			gui.details.loadProjects.setEnabled(false);  
 		}
-
-		gui.repaint();
+	}
+	
+	/**
+	 * File attributes have been loaded in the background (see AttributeLoader): Update 
+	 * the details if they are the ones of the current file, and the table.
+	 * 
+	 * @param entries
+	 */
+	public void attributesLoaded(List<DirEntry> entries) throws Throwable {
+		table.attributesLoaded(entries);
+		
+		if (currentFile == null) return;
+		for (DirEntry e : entries) {
+			if (e == currentFile) {
+				updateDetails();
+				return;
+			}
+		}
 	}
 	
 	/**
@@ -363,7 +448,8 @@ public class DetailsPanel extends JPanel {
 	}
 
 	/**
-	 * Also update the detail data when refreshing the details panel
+	 * Also update the detail data when refreshing the details panel (from memory only, 
+	 * see updateDetails())
 	 * 
 	 */
 	@Override
@@ -371,7 +457,7 @@ public class DetailsPanel extends JPanel {
 		try {
 			if (currentFile != null) {
 				// Also update the details values before repainting
-				setFileDetails(currentFile);
+				updateDetails();
 			}
 			super.repaint();
 
@@ -72,7 +72,7 @@ public class StatsTableModel extends AbstractTableModel {
 		List<ProjectDirEntry> projects = file.getProjectList();
 		
 		for (ProjectDirEntry p : projects) {
-			ret += p.getProjectProperties().get(def).getMatchingFiles().size();
+			ret += p.getProjectProperties().get(def).getMatchCount();
 		}
 		
 		return ret;
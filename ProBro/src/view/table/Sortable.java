@@ -0,0 +1,17 @@
+package view.table;
+
+/**
+ * Interface for cell values which are sorted by a precomputed numerical key (see TableSorter).
+ * 
+ * @author tweber
+ *
+ */
+public interface Sortable {
+
+	/**
+	 * Returns the sort key of the value, computed when the value has been created
+	 * 
+	 * @return
+	 */
+	public long getSortKey();
+}
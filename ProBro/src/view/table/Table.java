@@ -3,9 +3,14 @@ package view.table;
 import main.Main;
 import model.*;
 
+import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JLabel;
 import javax.swing.JTable;
@@ -13,6 +18,7 @@ import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
 import view.MainPanel;
@@ -54,7 +60,6 @@ public class Table extends JTable {
 		this.tableModel = tableModel;
 		
 		setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-		setAutoCreateRowSorter(true);
 		setShowVerticalLines(false);
 
 		final MainPanel guiWrapper = gui;
@@ -75,12 +80,24 @@ public class Table extends JTable {
 		
 		// Create and activate the file table model
 		setModel(tableModel);
+		setRowSorter(new TableSorter(tableModel));
 		
 		// Add renderer for some cells which have custom appearance
 		setDefaultRenderer(SizeBar.class, new SizeBarCellRenderer());
 		setDefaultRenderer(ProjectSizeBar.class, new SizeBarCellRenderer());
 		setDefaultRenderer(ProjectLeftoversSizeBar.class, new SizeBarCellRenderer());
 		setDefaultRenderer(ReadableSize.class, new ReadableSizeCellRenderer());
+		
+		// Flags not loaded yet (null): Show an empty cell instead of an unchecked box
+		final TableCellRenderer booleanRenderer = getDefaultRenderer(Boolean.class);
+		final TableCellRenderer emptyRenderer = getDefaultRenderer(Object.class);
+		setDefaultRenderer(Boolean.class, new TableCellRenderer() {
+			@Override
+			public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+				if (value == null) return emptyRenderer.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+				return booleanRenderer.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+			}
+		});
 
 		// Add renderers for columns directly in the table model
 		tableModel.setCellRenderers(this);
@@ -110,7 +127,10 @@ public class Table extends JTable {
 	 * @param d
 	 */
 	private void doubleClick(DirEntry d) throws Throwable {
-    	if (gui.details.getView() == DetailsPanel.VIEW_PROJECTS || gui.details.getView() == DetailsPanel.VIEW_PROJECTLEFTOVERS) {
+    	if (gui.details.getView() == DetailsPanel.VIEW_PROJECTLEFTOVERS && d instanceof ProjectDirEntry && !((ProjectDirEntry)d).getProjectLeftoversList().isEmpty()) {
+    		// Aggregated leftover: Drill down to the leftovers inside
+    		gui.tree.expandToPath(d.getAbsolutePath());
+    	} else if (gui.details.getView() == DetailsPanel.VIEW_PROJECTS || gui.details.getView() == DetailsPanel.VIEW_PROJECTLEFTOVERS) {
     		// Projects view: open folder in OS
     		d.open();
     	} else {
@@ -123,6 +143,96 @@ public class Table extends JTable {
     	}
 	}
 	
+	/**
+	 * Returns the root file currently shown on the table
+	 * 
+	 * @return
+	 */
+	public DirEntry getDirEntry() {
+		return tableModel.getDirEntry();
+	}
+	
+	/**
+	 * A child of the given folder has been added, removed or changed (see DirWatcher). The
+	 * other rows are repainted, as the size bars are relative to each other.
+	 * 
+	 * @param folder
+	 * @param index
+	 * @param change
+	 */
+	public void childChanged(DirEntry folder, int index, int change) throws Throwable {
+		tableModel.childChanged(folder, index, change);
+		repaint();
+	}
+	
+	/**
+	 * Folders have been loaded fully in the background (see DeepLoadQueue). The other rows 
+	 * are repainted, as the size bars are relative to each other.
+	 * 
+	 * @param entries
+	 */
+	public void sizesLoaded(List<DirEntry> entries) throws Throwable {
+		tableModel.sizesLoaded(entries);
+		repaint();
+	}
+	
+	/**
+	 * File attributes have been loaded in the background (see AttributeLoader)
+	 * 
+	 * @param entries
+	 */
+	public void attributesLoaded(List<DirEntry> entries) throws Throwable {
+		tableModel.attributesLoaded(entries);
+	}
+	
+	/**
+	 * Returns the files of the rows currently visible in the viewport, from top to bottom
+	 * 
+	 * @return
+	 */
+	public List<DirEntry> getVisibleDirEntries() throws Throwable {
+		List<DirEntry> ret = new ArrayList<DirEntry>();
+		int[] rows = getVisibleRows();
+		if (rows == null) return ret;
+		
+		for (int i = rows[0]; i <= rows[1]; i++) {
+			DirEntry d = tableModel.getRowDirEntry(convertRowIndexToModel(i));
+			if (d != null) ret.add(d);
+		}
+		return ret;
+	}
+	
+	/**
+	 * Icons or display names have been looked up (see IconCache): Update the visible rows. The 
+	 * other rows show the new values when they are updated the next time.
+	 * 
+	 */
+	public void iconsLoaded() throws Throwable {
+		int[] rows = getVisibleRows();
+		if (rows == null) return;
+		
+		for (int i = rows[0]; i <= rows[1]; i++) {
+			int row = convertRowIndexToModel(i);
+			tableModel.fireTableRowsUpdated(row, row);
+		}
+	}
+	
+	/**
+	 * Returns the first and last (view) row visible in the viewport, or null if there is none
+	 * 
+	 * @return
+	 */
+	private int[] getVisibleRows() {
+		Rectangle r = getVisibleRect();
+		if (getRowCount() == 0 || r.height == 0) return null;
+		
+		int first = rowAtPoint(new Point(0, r.y));
+		int last = rowAtPoint(new Point(0, r.y + r.height - 1));
+		if (first < 0) return null;
+		if (last < 0) last = getRowCount() - 1;
+		return new int[] {first, last};
+	}
+	
 	/**
 	 * Update the table on the EDT with a new set of files
 	 * 
@@ -154,6 +264,56 @@ public class Table extends JTable {
 		getSelectionModel().addListSelectionListener(listSelectionListener);
 		
 		tableModel.setCellSizes(this);
+		
+		// The details request the attributes of their file again (see AttributeLoader.clear())
+		gui.details.repaint();
+		
+		// Warm start: Deep sizes of the folders known from the scan index
+		if (gui.details.getView() == DetailsPanel.VIEW_FILEBROWSER) gui.loadIndexedSizes(file);
+	}
+	
+	/**
+	 * Show the children of the given folder while they are listed, on the EDT (see
+	 * TableModel.startStreaming()). setTableData() has to be called when the listing
+	 * is finished.
+	 * 
+	 * @param file
+	 */
+	public void startTableData(final DirEntry file) throws Throwable {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					getSelectionModel().removeListSelectionListener(listSelectionListener);
+					tableModel.startStreaming(file);
+					getSelectionModel().addListSelectionListener(listSelectionListener);
+					gui.details.repaint();
+					
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Add a chunk of listed children of the given folder on the EDT (see startTableData())
+	 * 
+	 * @param file
+	 * @param chunk
+	 */
+	public void addTableData(final DirEntry file, final List<DirEntry> chunk) throws Throwable {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					tableModel.addRows(file, chunk);
+					
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+		});
 	}
 	
 	/**
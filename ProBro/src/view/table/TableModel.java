@@ -1,7 +1,16 @@
 package view.table;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
+import main.Main;
+
 import model.DirEntry;
 
 /**
@@ -13,6 +22,83 @@ import model.DirEntry;
 public abstract class TableModel extends AbstractTableModel {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Cell values of the rows (view models), null for rows not built yet. The values of a
+	 * row are built once by createValue() on first access, and only again after the row 
+	 * has been updated (see fireTableChanged()), so repainting and sorting create no objects.
+	 */
+	private List<Object[]> cells = new ArrayList<Object[]>();
+
+	/**
+	 * Creates the value of a cell, which is cached until the row is updated. Values of data
+	 * which changes without a row update (like sizes while loading) have to read it live 
+	 * from the DirEntry when painted; their sort keys are refreshed with the row.
+	 * 
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	protected abstract Object createValue(int row, int column) throws Throwable;
+
+	/**
+	 * Returns the (cached) value of a cell
+	 * 
+	 */
+	@Override
+	public Object getValueAt(int row, int column) {
+		try {
+			if (getDirEntry() == null) return null;
+			
+			// Rows changed without event: Start over
+			if (cells.size() > getRowCount()) cells.clear();
+			while (cells.size() <= row) cells.add(null);
+			
+			Object[] values = cells.get(row);
+			if (values == null) {
+				values = new Object[getColumnCount()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = createValue(row, i);
+				}
+				cells.set(row, values);
+			}
+			return values[column];
+			
+		} catch (Throwable e) {
+			Main.handleThrowable(e);
+			return ""; 
+		}
+	}
+
+	/**
+	 * Keeps the cached cell values in line with the rows, before the event is fired
+	 * 
+	 */
+	@Override
+	public void fireTableChanged(TableModelEvent e) {
+		int first = e.getFirstRow();
+		int last = e.getLastRow();
+		
+		if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+			// All data (or the structure) has changed
+			cells.clear();
+		} else {
+			last = Math.min(last, cells.size() - 1);
+			switch (e.getType()) {
+			case TableModelEvent.INSERT:
+				if (first <= cells.size()) {
+					for (int i = e.getFirstRow(); i <= e.getLastRow(); i++) cells.add(first, null);
+				}
+				break;
+			case TableModelEvent.DELETE:
+				for (int i = last; i >= first; i--) cells.remove(i);
+				break;
+			default:
+				for (int i = first; i <= last; i++) cells.set(i, null);
+			}
+		}
+		super.fireTableChanged(e);
+	}
+
 	/**
 	 * Set the root file, whose children or whatever shall be shown on the table
 	 * 
@@ -20,6 +106,30 @@ public abstract class TableModel extends AbstractTableModel {
 	 */
 	public abstract void setDirEntry(DirEntry file) throws Throwable;
 
+	/**
+	 * Returns the root file currently shown on the table
+	 * 
+	 * @return
+	 */
+	public abstract DirEntry getDirEntry();
+
+	/**
+	 * Show the children of the given folder while they are listed (see DirScanner), if 
+	 * supported: The rows are added by addRows(), and setDirEntry() is called when the 
+	 * listing is finished. Not supported by default.
+	 * 
+	 * @param file
+	 */
+	public void startStreaming(DirEntry file) throws Throwable {}
+	
+	/**
+	 * Add a chunk of listed children of the given folder (see startStreaming())
+	 * 
+	 * @param file
+	 * @param chunk
+	 */
+	public void addRows(DirEntry file, List<DirEntry> chunk) throws Throwable {}
+
 	/**
 	 * Set the cell sizes of all cells (only called once at initialization)
 	 * 
@@ -35,6 +145,68 @@ public abstract class TableModel extends AbstractTableModel {
 	 */
 	public abstract DirEntry getRowDirEntry(int row) throws Throwable;
 	
+	/**
+	 * A child of the given folder has been added, removed or changed (see DirWatcher). As 
+	 * the sizes of all parents change, too, this updates the rows of the folder and its 
+	 * parents by default.
+	 * 
+	 * @param folder
+	 * @param index
+	 * @param change
+	 */
+	public void childChanged(DirEntry folder, int index, int change) throws Throwable {
+		fireRowsUpdated(Collections.singletonList(folder), true);
+	}
+	
+	/**
+	 * Folders have been loaded fully (see DeepLoadQueue). This updates the rows of the folders 
+	 * and of their parents, whose sizes include them, so their sort keys are taken again. The
+	 * size cells of the other rows read the sizes live, the table only has to be repainted.
+	 * 
+	 * @param entries
+	 */
+	public void sizesLoaded(List<DirEntry> entries) throws Throwable {
+		fireRowsUpdated(entries, true);
+	}
+	
+	/**
+	 * Fires the update events for the rows of the given files, one event for each range of 
+	 * rows. The other rows keep their cached cell values. 
+	 * 
+	 * @param entries
+	 * @param parents Also update the rows of the parent folders of the files
+	 */
+	protected void fireRowsUpdated(List<DirEntry> entries, boolean parents) throws Throwable {
+		Set<DirEntry> updated = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+		for (DirEntry e : entries) {
+			if (!parents) {
+				updated.add(e);
+				continue;
+			}
+			// Stop at parents already added with another file
+			for (DirEntry d = e; d != null && updated.add(d); d = d.getParentDirEntry());
+		}
+		
+		int count = getRowCount();
+		int first = -1;
+		for (int i = 0; i <= count; i++) {
+			boolean u = (i < count) && updated.contains(getRowDirEntry(i));
+			if (u && first < 0) first = i;
+			if (!u && first >= 0) {
+				fireTableRowsUpdated(first, i - 1);
+				first = -1;
+			}
+		}
+	}
+	
+	/**
+	 * The attributes of the given files have been loaded in the background (see 
+	 * AttributeLoader). Models showing placeholders for them have to update the rows.
+	 * 
+	 * @param entries
+	 */
+	public void attributesLoaded(List<DirEntry> entries) throws Throwable {}
+	
 	/**
 	 * With this, the child classes can call their specific cell renderers
 	 * 
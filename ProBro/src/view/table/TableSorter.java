@@ -0,0 +1,61 @@
+package view.table;
+
+import java.util.Comparator;
+
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Row sorter for the tables. Columns whose values implement Sortable are compared by
+ * their numerical keys directly, other columns are sorted like by the default sorter.
+ * 
+ * @author tweber
+ *
+ */
+public class TableSorter extends TableRowSorter<TableModel> {
+
+	/**
+	 * Comparator for Sortable values
+	 */
+	private static final Comparator<Sortable> SORTABLE_COMPARATOR = new Comparator<Sortable>() {
+		@Override
+		public int compare(Sortable a, Sortable b) {
+			long ka = a.getSortKey();
+			long kb = b.getSortKey();
+			return (ka < kb) ? -1 : ((ka == kb) ? 0 : 1);
+		}
+	};
+	
+	public TableSorter(TableModel model) {
+		super(model);
+	}
+	
+	/**
+	 * Returns the comparator for the column
+	 * 
+	 */
+	@Override
+	public Comparator<?> getComparator(int column) {
+		if (isSortableColumn(column)) return SORTABLE_COMPARATOR;
+		return super.getComparator(column);
+	}
+	
+	/**
+	 * Sortable values are never compared by their string representation
+	 * 
+	 */
+	@Override
+	protected boolean useToString(int column) {
+		if (isSortableColumn(column)) return false;
+		return super.useToString(column);
+	}
+	
+	/**
+	 * Are the values of the column sorted by their keys?
+	 * 
+	 * @param column
+	 * @return
+	 */
+	private boolean isSortableColumn(int column) {
+		return Sortable.class.isAssignableFrom(getModel().getColumnClass(column));
+	}
+}
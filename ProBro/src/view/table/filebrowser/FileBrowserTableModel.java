@@ -4,12 +4,16 @@ import main.Main;
 import main.Messages;
 import main.Utils;
 import model.DirEntry;
+import model.DirWatcher;
+import model.FileAttributes;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
-import javax.swing.JFileChooser;
 
 import view.table.Table;
 import view.table.TableModel;
@@ -57,55 +61,57 @@ public class FileBrowserTableModel extends TableModel {
 	private DirEntry dirEntry = null;                              
 	
 	/**
-	 * We only set cell sizes once at the first call!
+	 * Rows: The children of dirEntry, or the ones listed so far while streaming
 	 */
-	private boolean cellSizesSet = false;                          
+	private List<DirEntry> rows = Collections.emptyList();
 	
 	/**
-	 * Utility for getting nice file icons
+	 * Are the children of dirEntry being listed (see startStreaming())?
 	 */
-	private JFileChooser j = new JFileChooser();
+	private boolean streaming = false;
+	
+	/**
+	 * We only set cell sizes once at the first call!
+	 */
+	private boolean cellSizesSet = false;                          
 	
 	public FileBrowserTableModel() {}
 	
 	/**
-	 * Defines the values shown in the table
+	 * Defines the values shown in the table (see TableModel.getValueAt()). Values depending 
+	 * on attributes which have not been read yet are null (shown empty), the attributes are 
+	 * loaded in the background then (see attributesLoaded()).
 	 * 
 	 */
 	@Override
-	public Object getValueAt(int row, int column) {
-		try {
-			if (dirEntry == null) {
-				return null;
-			}
-			
-			DirEntry file = dirEntry.getChildren().get(row);
-	
-			switch (column) {
-			case 0:
-				return j.getUI().getFileView(j).getIcon(file);  
-			case 1:
-				return Utils.getFileSystemView().getSystemDisplayName(file);
-			case 2:
-				return new SizeBar(file); 
-			case 3:
-				return new ReadableSize(file);
-			case 4:
-				return file.getType(); 
-			case 5:
-				return file.lastModified();
-			case 6:
-				return file.canRead();
-			case 7:
-				return file.canWrite();
-			case 8:
-				return file.canExecute();
-			default:
-				System.err.println(Messages.getString("Table_Errorstring", column)); 
-			}
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
+	protected Object createValue(int row, int column) throws Throwable {
+		DirEntry file = rows.get(row);
+		FileAttributes attributes = file.getLoadedAttributes();
+		boolean access = (attributes != null) && attributes.isAccessLoaded();
+		if (!access) Utils.getAttributeLoader().load(file);
+		if (attributes == null && column != 1) return null;
+
+		switch (column) {
+		case 0:
+			return Utils.getIconCache().getIcon(file);  
+		case 1:
+			return Utils.getIconCache().getDisplayName(file);
+		case 2:
+			return new SizeBar(file); 
+		case 3:
+			return new ReadableSize(file);
+		case 4:
+			return file.getType(); 
+		case 5:
+			return file.lastModified();
+		case 6:
+			return access ? file.canRead() : null;
+		case 7:
+			return access ? file.canWrite() : null;
+		case 8:
+			return access ? file.canExecute() : null;
+		default:
+			System.err.println(Messages.getString("Table_Errorstring", column)); 
 		}
 		return ""; 
 	}
@@ -180,14 +186,7 @@ public class FileBrowserTableModel extends TableModel {
 	 */
 	@Override
 	public int getRowCount() {
-		try {
-			if (dirEntry == null) return 0;
-			return dirEntry.getChildren().size();
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
-			return 0;
-		}
+		return rows.size();
 	}
 
 	/**
@@ -198,31 +197,137 @@ public class FileBrowserTableModel extends TableModel {
 	 */
 	@Override
 	public DirEntry getRowDirEntry(int row) {
-		try {
-			if (dirEntry == null) return null;
-			return dirEntry.getChildren().get(row);
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
-			return null;
-		}
+		if (dirEntry == null) return null;
+		return rows.get(row);
+	}
+
+	/**
+	 * Returns the DirEntry whose children are shown in the table
+	 * 
+	 * @return
+	 */
+	@Override
+	public DirEntry getDirEntry() {
+		return dirEntry;
 	}
 
 	/**
-	 * Set a new DirEntry whose children shall be shown in the table
+	 * Set a new DirEntry whose children shall be shown in the table. If its children have
+	 * been streamed into the table, the listed children are just taken over (unless another
+	 * listing has been published, see DirEntry.getChildren()).
 	 * 
 	 * @param d
 	 */
 	@Override
 	public void setDirEntry(DirEntry d) {
 		try {
+			boolean streamed = streaming && d == dirEntry;
+			List<DirEntry> streamedRows = rows;
+			
+			// Another folder: The attributes of the rows before are not needed first anymore
+			if (d != dirEntry) Utils.getAttributeLoader().clear();
 			this.dirEntry = d;
+			this.streaming = false;
+			List<DirEntry> children = (d != null) ? d.getChildren() : null;
+			rows = (children != null) ? children : Collections.<DirEntry>emptyList();
+			
+			if (streamed && isSameRows(streamedRows, rows)) return;
 			fireTableDataChanged();
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
 		}	
 	}
+	
+	/**
+	 * Do both lists contain the same instances, in the same order?
+	 * 
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	private static boolean isSameRows(List<DirEntry> a, List<DirEntry> b) {
+		if (a.size() != b.size()) return false;
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Show the children of the given folder while they are listed: The table starts empty,
+	 * and the rows are inserted chunk by chunk (see addRows()). The listing has to call
+	 * setDirEntry() when finished.
+	 * 
+	 */
+	@Override
+	public void startStreaming(DirEntry d) throws Throwable {
+		if (d != dirEntry) Utils.getAttributeLoader().clear();
+		this.dirEntry = d;
+		this.streaming = true;
+		rows = new ArrayList<DirEntry>();
+		fireTableDataChanged();
+	}
+	
+	/**
+	 * Insert the next chunk of listed children, if they are being streamed into the table
+	 * 
+	 */
+	@Override
+	public void addRows(DirEntry d, List<DirEntry> chunk) throws Throwable {
+		if (!streaming || d != dirEntry || chunk.isEmpty()) return;
+		
+		int first = rows.size();
+		rows.addAll(chunk);
+		fireTableRowsInserted(first, rows.size() - 1);
+	}
+
+	/**
+	 * Fires the row events for changes of the listed folder. For changes deeper inside, only 
+	 * the row of the sub folder containing the change is updated. 
+	 * 
+	 */
+	@Override
+	public void childChanged(DirEntry folder, int index, int change) throws Throwable {
+		if (dirEntry == null) return;
+		
+		if (folder == dirEntry) {
+			// The folder has replaced its children list
+			List<DirEntry> children = folder.getLoadedChildren();
+			rows = (children != null) ? children : Collections.<DirEntry>emptyList();
+			
+			switch (change) {
+			case DirWatcher.ADDED:
+				fireTableRowsInserted(index, index);
+				break;
+			case DirWatcher.REMOVED:
+				fireTableRowsDeleted(index, index);
+				break;
+			default:
+				fireTableRowsUpdated(index, index);
+			}
+			return;
+		}
+		
+		// Find the row containing the folder
+		DirEntry d = folder;
+		while (d != null && d.getParentDirEntry() != dirEntry) {
+			d = d.getParentDirEntry();
+		}
+		if (d == null) return;
+		
+		int row = rows.indexOf(d);
+		if (row >= 0) fireTableRowsUpdated(row, row);
+	}
+
+	/**
+	 * Update the rows of the files whose attributes have been loaded
+	 * 
+	 */
+	@Override
+	public void attributesLoaded(List<DirEntry> entries) throws Throwable {
+		fireRowsUpdated(entries, false);
+	}
 
 	/**
 	 * Returns the file icon of a specific row
@@ -231,8 +336,8 @@ public class FileBrowserTableModel extends TableModel {
 	 * @return
 	 */
 	public Icon getIcon(int row) throws Throwable {
-		if (dirEntry == null || dirEntry.getChildren().size() == 0) return null;
-		return Utils.getFileSystemView().getSystemIcon(dirEntry.getChildren().get(row));
+		if (rows.size() == 0) return null;
+		return Utils.getIconCache().getIcon(rows.get(row));
 	}
 
 	/**
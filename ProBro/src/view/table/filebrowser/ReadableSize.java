@@ -1,29 +1,31 @@
 package view.table.filebrowser;
 
-import main.Main;
 import model.DirEntry;
-
-import javax.swing.JLabel;
-import javax.swing.SwingConstants;
+import view.table.Sortable;
 
 /**
- * Class for representing readable sizes in table cells
+ * Class for representing readable sizes in table cells. The text is taken from the
+ * file on each paint, only the sort key is taken at creation time (see TableModel.getValueAt()).
  * 
  * @author tweber
  *
  */
 @SuppressWarnings("rawtypes")
-public class ReadableSize extends JLabel implements Comparable {
-	private static final long serialVersionUID = 1L;
+public class ReadableSize implements Comparable, Sortable {
 
 	/**
 	 * File whose size shall be showed
 	 */
 	private DirEntry file;
 	
+	/**
+	 * Size in bytes (sort key), -1 if not known yet
+	 */
+	private long size;
+	
 	public ReadableSize(DirEntry file) throws Throwable {
-		super("", SwingConstants.TRAILING);
 		this.file = file;
+		this.size = file.getSize();
 	}
 
 	/**
@@ -35,19 +37,40 @@ public class ReadableSize extends JLabel implements Comparable {
 		return file;
 	}
 	
+	/**
+	 * Returns the size text
+	 * 
+	 * @return
+	 */
+	public String getText() throws Throwable {
+		return file.getReadableSize();
+	}
+	
+	/**
+	 * Is the size final (file fully loaded)?
+	 * 
+	 * @return
+	 */
+	public boolean isFullyLoaded() throws Throwable {
+		return file.isFullyLoaded();
+	}
+	
+	/**
+	 * Sort key: The size
+	 * 
+	 */
+	@Override
+	public long getSortKey() {
+		return size;
+	}
+	
 	/**
 	 * Comparison function
 	 * 
 	 */
 	@Override
 	public int compareTo(Object o) {
-		try {
-			ReadableSize r = (ReadableSize)o;
-			return (file.getSize() > r.file.getSize()) ? 1 : -1;
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
-			return 0;
-		}
+		ReadableSize r = (ReadableSize)o;
+		return (size < r.size) ? -1 : ((size == r.size) ? 0 : 1);
 	}
 }
@@ -1,7 +1,6 @@
 package view.table.filebrowser;
 
 import main.Main;
-import model.DirEntry;
 
 import java.awt.Color;
 import java.awt.Component;
@@ -21,11 +20,6 @@ import javax.swing.table.TableCellRenderer;
 public class ReadableSizeCellRenderer extends JLabel implements TableCellRenderer {
 	private static final long serialVersionUID = 1L;
 
-	/**
-	 * File whose size shall be showed
-	 */
-	private DirEntry file = null;
-	
 	// Colors
 	private Color selColor = UIManager.getColor("Table.selectionBackground");
 	private Color selFColor = UIManager.getColor("Table.selectionForeground");
@@ -44,13 +38,20 @@ public class ReadableSizeCellRenderer extends JLabel implements TableCellRendere
 	@Override
 	public Component getTableCellRendererComponent(JTable table, Object size, boolean isSelected, boolean hasFocus, int row, int column) {
 		try {
-			this.file = ((ReadableSize)size).getFile();
-			this.setText(file.getReadableSize());
+			ReadableSize s = (ReadableSize)size;
+			
+			// Attributes not loaded yet
+			if (s == null) {
+				this.setText(""); //$NON-NLS-1$
+				this.setBackground(isSelected ? selColor : tabColor);
+				return this;
+			}
+			this.setText(s.getText());
 			
 			if (!isSelected) {
 				this.setBackground(tabColor);
 				this.setForeground(tabFColor);
-				this.setEnabled(file.isFullyLoaded() ? true : false);
+				this.setEnabled(s.isFullyLoaded() ? true : false);
 			} else {
 				this.setBackground(selColor);
 				this.setForeground(selFColor);
@@ -1,16 +1,18 @@
 package view.table.filebrowser;
 
-import main.Main;
 import model.DirEntry;
+import view.table.Sortable;
 
 /**
- * Class for representing size bars in table cells
+ * Class for representing size bars in table cells. The bar is determined from the
+ * file on each paint, so it follows the sizes while they are loaded. Only the sort key
+ * is taken at creation time (see TableModel.getValueAt()).
  * 
  * @author tweber
  *
  */
 @SuppressWarnings("rawtypes")
-public class SizeBar implements Comparable {
+public class SizeBar implements Comparable, Sortable {
 	
 	/**
 	 * File whose size shall be showed
@@ -18,13 +20,13 @@ public class SizeBar implements Comparable {
 	protected DirEntry file;
 	
 	/**
-	 * Bar size in [0..1]
+	 * Size of the file (sort key), -1 if not fully loaded
 	 */
-	protected float barSize;     
+	private long size;
 	
 	public SizeBar(DirEntry file) throws Throwable {
 		this.file = file;
-		barSize = determineBarSize();
+		size = file.getSize();
 	}
 	
 	/**
@@ -32,8 +34,8 @@ public class SizeBar implements Comparable {
 	 * 
 	 * @return
 	 */
-	public float getBarSize() {
-		return barSize;
+	public float getBarSize() throws Throwable {
+		return determineBarSize();
 	}
 	
 	/**
@@ -48,19 +50,22 @@ public class SizeBar implements Comparable {
 		return me / parent;
 	}
 
+	/**
+	 * Sort key: The size of the file
+	 * 
+	 */
+	@Override
+	public long getSortKey() {
+		return size;
+	}
+
 	/**
 	 * Table sort comparator
 	 * 
 	 */
 	@Override
 	public int compareTo(Object o) {
-		try {
-			SizeBar s = (SizeBar)o;
-			return (barSize > s.barSize) ? 1 : -1;
-			
-		} catch (Throwable t) {
-			Main.handleThrowable(t);
-			return 0;
-		}
+		SizeBar s = (SizeBar)o;
+		return (size < s.size) ? -1 : ((size == s.size) ? 0 : 1);
 	}
 }
@@ -10,6 +10,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTable;
 import javax.swing.UIManager;
+import javax.swing.border.Border;
 import javax.swing.table.TableCellRenderer;
 
 import main.Main;
@@ -34,6 +35,11 @@ public class SizeBarCellRenderer extends JPanel implements TableCellRenderer {
 	private Color tabColor = UIManager.getColor("Table.background");
 	private Color tabFColor = UIManager.getColor("Table.foreground");
 
+	// Bar frames
+	private Border barFrame = BorderFactory.createLineBorder(barFrameColor, 1);
+	private Border selBarFrame = BorderFactory.createLineBorder(selColor, 1);
+	private Border noFrame = BorderFactory.createEmptyBorder();
+
 	/**
 	 * SizeBar reference
 	 */
@@ -80,10 +86,19 @@ public class SizeBarCellRenderer extends JPanel implements TableCellRenderer {
 	@Override
 	public void paintComponent(Graphics g) {
 		try {
+			if (sizeBar == null) {
+				// Attributes not loaded yet: Empty cell
+				setBorder(noFrame);
+				teaser.setVisible(false);
+				g.setColor(isSelected ? selColor : tabColor);
+				g.fillRect(0, 0, getWidth(), getHeight());
+				return;
+			}
+			
 			float size = sizeBar.getBarSize();
 			if (size == -1) {
 				// Not fully loaded: Show full light gray bar
-				setBorder(BorderFactory.createEmptyBorder());
+				setBorder(noFrame);
 				
 				if (!isSelected) {
 					g.setColor(tabColor);
@@ -100,10 +115,10 @@ public class SizeBarCellRenderer extends JPanel implements TableCellRenderer {
 			} else {
 				teaser.setVisible(false);
 				if (!isSelected) {
-					setBorder(BorderFactory.createLineBorder(barFrameColor, 1));
+					setBorder(barFrame);
 					g.setColor(barBackColor);
 				} else {
-					setBorder(BorderFactory.createLineBorder(selColor, 1));
+					setBorder(selBarFrame);
 					g.setColor(selColor);
 				}
 				g.fillRect(0, 0, getWidth(), getHeight());
@@ -5,8 +5,10 @@ import main.Messages;
 import main.Utils;
 import model.DirEntry;
 import model.ProjectDirEntry;
+
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.Icon;
-import javax.swing.JFileChooser;
 import view.table.Table;
 import view.table.TableModel;
 import view.table.filebrowser.ReadableSize;
@@ -49,46 +51,37 @@ public class ProjectLeftoversTableModel extends TableModel {
 	private ProjectDirEntry dirEntry = null;                      
 	
 	/**
-	 *  We only set cell sizes once at the first call!
+	 * Rows: The leftover folders of the current DirEntry
 	 */
-	private boolean cellSizesSet = false;                          
+	private List<ProjectDirEntry> rows = new ArrayList<ProjectDirEntry>();
 	
 	/**
-	 * Utility for getting nice file icons
+	 *  We only set cell sizes once at the first call!
 	 */
-	private JFileChooser j = new JFileChooser();
+	private boolean cellSizesSet = false;                          
 	
 	public ProjectLeftoversTableModel() {}
 	
 	/**
-	 * Defines the values shown in the table
+	 * Defines the values shown in the table (see TableModel.getValueAt())
 	 * 
 	 */
 	@Override
-	public Object getValueAt(int row, int column) {
-		try {
-			if (dirEntry == null) {
-				return null;
-			}
-		
-			ProjectDirEntry file = dirEntry.getProjectLeftoversList().get(row);
-	
-			switch (column) {
-			case 0:
-				return j.getUI().getFileView(j).getIcon(file);  
-			case 1:
-				return Utils.getFileSystemView().getSystemDisplayName(file);
-			case 2:
-				return new ProjectLeftoversSizeBar(file, dirEntry); 
-			case 3:
-				return new ReadableSize(file);
-			}
-			
-			System.err.println(Messages.getString("Table_Errorstring", column)); 
+	protected Object createValue(int row, int column) throws Throwable {
+		ProjectDirEntry file = rows.get(row);
 
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
+		switch (column) {
+		case 0:
+			return Utils.getIconCache().getIcon(file);  
+		case 1:
+			return Utils.getIconCache().getDisplayName(file);
+		case 2:
+			return new ProjectLeftoversSizeBar(file, dirEntry); 
+		case 3:
+			return new ReadableSize(file);
 		}
+		
+		System.err.println(Messages.getString("Table_Errorstring", column)); 
 		return ""; 
 	}
 
@@ -162,7 +155,7 @@ public class ProjectLeftoversTableModel extends TableModel {
 	public int getRowCount() {
 		try {
 			if (dirEntry == null) return 0;
-			return dirEntry.getProjectLeftoversList().size();
+			return rows.size();
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
@@ -180,7 +173,7 @@ public class ProjectLeftoversTableModel extends TableModel {
 	public ProjectDirEntry getRowDirEntry(int row) {
 		try {
 			if (dirEntry == null) return null;
-			return dirEntry.getProjectLeftoversList().get(row);
+			return rows.get(row);
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
@@ -188,6 +181,16 @@ public class ProjectLeftoversTableModel extends TableModel {
 		}
 	}
 
+	/**
+	 * Returns the DirEntry whose children are shown in the table
+	 * 
+	 * @return
+	 */
+	@Override
+	public ProjectDirEntry getDirEntry() {
+		return dirEntry;
+	}
+
 	/**
 	 * Set a new DirEntry whose children shall be shown in the table
 	 * 
@@ -196,8 +199,30 @@ public class ProjectLeftoversTableModel extends TableModel {
 	@Override
 	public void setDirEntry(DirEntry d) throws Throwable {
 		this.dirEntry = (ProjectDirEntry)d;
+		
+		rows = null;
+		if (dirEntry != null) rows = dirEntry.getProjectLeftoversList();
+		if (rows == null) rows = new ArrayList<ProjectDirEntry>();
+		
 		fireTableDataChanged();
 	}
+	
+	/**
+	 * Add the leftovers found by a running project search of the current DirEntry (see
+	 * LoadProjectsWorker). When the search is finished, the complete results are 
+	 * shown by setDirEntry() again.
+	 * 
+	 * @param found
+	 */
+	public void addLeftovers(List<ProjectDirEntry> found) throws Throwable {
+		if (dirEntry == null || dirEntry.projectsLoaded()) return;
+		
+		int first = rows.size();
+		for (ProjectDirEntry f : found) {
+			if (!f.isProject()) rows.add(f);
+		}
+		if (rows.size() > first) fireTableRowsInserted(first, rows.size() - 1);
+	}
 
 	/**
 	 * Returns the file icon of a specific row
@@ -206,8 +231,8 @@ public class ProjectLeftoversTableModel extends TableModel {
 	 * @return
 	 */
 	public Icon getIcon(int row) throws Throwable {
-		if (dirEntry == null || dirEntry.getProjectList().size() == 0) return null;
-		return Utils.getFileSystemView().getSystemIcon(dirEntry.getProjectList().get(row));
+		if (rows.size() == 0) return null;
+		return Utils.getIconCache().getIcon(rows.get(row));
 	}
 
 	/**
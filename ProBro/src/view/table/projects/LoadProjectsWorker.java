@@ -1,11 +1,17 @@
 package view.table.projects;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import view.MainPanel;
+import view.table.TableModel;
+import view.table.projectleftovers.ProjectLeftoversTableModel;
 import view.workers.CustomSwingWorker;
 import main.Main;
 import main.Messages;
 import model.DirEntry;
 import model.ProjectDirEntry;
+import model.ProjectResults;
 
 /**
  * Worker thread class for loading projects information
@@ -13,13 +19,18 @@ import model.ProjectDirEntry;
  * @author tweber
  *
  */
-public class LoadProjectsWorker extends CustomSwingWorker<Void, Void> {
+public class LoadProjectsWorker extends CustomSwingWorker<Void, ProjectDirEntry> {
 
 	/**
 	 * The file which started this worker thread
 	 */
 	public DirEntry rootFile; 
 	
+	/**
+	 * Cancel flag for the parallel search tasks
+	 */
+	private AtomicBoolean cancelled = new AtomicBoolean(false);
+	
 	public LoadProjectsWorker(MainPanel gui) throws Throwable {
 		super(gui);
 	}
@@ -47,6 +58,7 @@ public class LoadProjectsWorker extends CustomSwingWorker<Void, Void> {
 	public void cancel() {
 		try {
 			super.cancel();        // Cancel in subclass
+			cancelled.set(true);   // Cancel the search tasks
 			super.cancel(true);    // Cancel in SwingWorker (Thread kill)
 			
 		} catch (Throwable e) {
@@ -55,7 +67,7 @@ public class LoadProjectsWorker extends CustomSwingWorker<Void, Void> {
 	}
 	
 	/**
-	 * Recursively searches for projects in this folder, calling loadProjects on the ProjectsDirEntry instance rootFile
+	 * Recursively searches for projects in this folder, calling loadProjectsParallel on the ProjectsDirEntry instance rootFile
 	 * 
 	 * @throws Throwable 
 	 * 
@@ -66,9 +78,41 @@ public class LoadProjectsWorker extends CustomSwingWorker<Void, Void> {
 			return;
 		}
 		// Now we know the file name
-		panel.update();
+		updateText();
 
-		((ProjectDirEntry)rootFile).loadProjects();
+		// Results are published to the table as soon as they are found
+		((ProjectDirEntry)rootFile).loadProjectsParallel(new ProjectResults.Listener() {
+			@Override
+			public void found(ProjectDirEntry entry) throws Throwable {
+				publish(entry);
+			}
+		}, Main.DEFER_PROJECT_SIZES, Main.AGGREGATE_PROJECT_LEFTOVERS, cancelled);
+		if (cancelled.get()) return;
+		
+		// Remember the deep data of the projects for the next time
+		Main.getScanIndex().store();
+	}
+	
+	/**
+	 * Add the projects or leftovers found meanwhile to the table, if it shows the searched folder.
+	 * 
+	 */
+	@Override
+	protected void process(List<ProjectDirEntry> found) {
+		try {
+			TableModel model = (TableModel)gui.details.table.getModel();
+			if (model.getDirEntry() != rootFile) return;
+			
+			if (model instanceof ProjectsTableModel) {
+				((ProjectsTableModel)model).addProjects(found);
+			}
+			if (model instanceof ProjectLeftoversTableModel) {
+				((ProjectLeftoversTableModel)model).addLeftovers(found);
+			}
+			
+		} catch (Throwable e) {
+			Main.handleThrowable(e);
+		}
 	}
 	
 	/**
@@ -82,6 +126,14 @@ public class LoadProjectsWorker extends CustomSwingWorker<Void, Void> {
 			gui.setActive(true);
 
 			gui.details.table.setTableData(gui.details.getCurrentFile());
+			
+			// Now load the sizes of all projects and leftovers not loaded yet, visible rows first
+			if (rootFile != null) {
+				ProjectDirEntry root = (ProjectDirEntry)rootFile;
+				gui.loadSizes(root.getProjectList());
+				gui.loadSizes(root.getProjectLeftoversList());
+				gui.prioritizeSizes(gui.details.table.getVisibleDirEntries());
+			}
 			gui.details.repaint();
 			gui.repaint();
 			
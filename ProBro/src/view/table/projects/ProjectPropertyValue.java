@@ -1,7 +1,12 @@
 package view.table.projects;
 
-import main.Main;
+import java.awt.Color;
+
+import javax.swing.UIManager;
+
 import model.ProjectProperty;
+import model.ProjectPropertyExtension;
+import view.table.Sortable;
 
 /**
  * Class for representing audio file counts in projects view
@@ -10,15 +15,33 @@ import model.ProjectProperty;
  *
  */
 @SuppressWarnings("rawtypes")
-public class ProjectPropertyValue implements Comparable {
+public class ProjectPropertyValue implements Comparable, Sortable {
 	
 	/**
 	 * File counter for which this instance is responsible to.
 	 */
 	private ProjectProperty projectProperty;
 	
+	/**
+	 * Output string
+	 */
+	private String output;
+	
+	/**
+	 * Numerical value for sorting
+	 */
+	private int numericalOutput;
+	
+	/**
+	 * Background color (if not selected)
+	 */
+	private Color bgColor;
+	
 	public ProjectPropertyValue(ProjectProperty counter) throws Throwable {
 		this.projectProperty = counter;
+		this.output = determineOutput();
+		this.numericalOutput = determineNumericalOutput();
+		this.bgColor = determineBgColor(UIManager.getColor("Table.background"));
 	}
 
 	/**
@@ -30,22 +53,23 @@ public class ProjectPropertyValue implements Comparable {
 		return projectProperty;
 	}
 	
+	/**
+	 * Sort key: The numerical output
+	 * 
+	 */
+	@Override
+	public long getSortKey() {
+		return numericalOutput;
+	}
+	
 	/**
 	 * Table sort comparator
 	 * 
 	 */
 	@Override
 	public int compareTo(Object o) {
-		try {
-			ProjectPropertyValue s = (ProjectPropertyValue)o;
-			Integer me = getNumericalOutput();
-			Integer other = s.getNumericalOutput();
-			return me.compareTo(other);
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
-			return 0;
-		}
+		ProjectPropertyValue s = (ProjectPropertyValue)o;
+		return (numericalOutput < s.numericalOutput) ? -1 : ((numericalOutput == s.numericalOutput) ? 0 : 1);
 	}
 	
 	/**
@@ -53,14 +77,32 @@ public class ProjectPropertyValue implements Comparable {
 	 * 
 	 * @return
 	 */
-	public String getOutput() throws Throwable {
+	public String getOutput() {
+		return output;
+	}
+	
+	/**
+	 * Returns the background color (if not selected)
+	 * 
+	 * @return
+	 */
+	public Color getBgColor() {
+		return bgColor;
+	}
+	
+	/**
+	 * Determines the visible output string
+	 * 
+	 * @return
+	 */
+	private String determineOutput() throws Throwable {
 		if (!projectProperty.isFound()) return "-";
 
 		// Do we have a fixed text to show if the property has been found?
 		if (projectProperty.getTableText() != null) return projectProperty.getTableText();
 		
 		// Show count of found audio files inside the property target
-		return Integer.toString(projectProperty.getMatchingFiles().size()); 
+		return Integer.toString(projectProperty.getMatchCount()); 
 	}
 	
 	/**
@@ -69,13 +111,52 @@ public class ProjectPropertyValue implements Comparable {
 	 * @return
 	 * @throws Throwable 
 	 */
-	private int getNumericalOutput() throws Throwable {
+	private int determineNumericalOutput() throws Throwable {
 		if (!projectProperty.isFound()) return -1;
 
 		// Do we have a fixed text to show if the property has been found?
 		if (projectProperty.getTableText() != null) return 1;
 				
 		// Return count of found audio files inside the property target
-		return projectProperty.getMatchingFiles().size();
+		return projectProperty.getMatchCount();
+	}
+
+	/**
+	 * Returns the background color for the found files: The colors of the extensions which the 
+	 * files have triggered are mixed, weighted by their counts.
+	 * 
+	 * @param tabColor
+	 * @return
+	 * @throws Throwable 
+	 */
+	private Color determineBgColor(Color tabColor) throws Throwable {
+		ProjectProperty c = projectProperty;
+		if (c == null) return tabColor;
+
+		// Get the base color (defined for the file or folder)
+		Color baseColor;
+		if (c.getTargetProperty() != null && c.getTargetProperty().getBgColor() != null) {
+			baseColor = c.getTargetProperty().getBgColor();		
+		} else {
+			baseColor = tabColor;			
+		}
+
+		int[] counts = c.getMatchCounts();
+		if (counts == null || c.getMatchCount() == 0) return baseColor;
+		
+		int r = 0;
+		int g = 0;
+		int b = 0;
+		
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) continue;
+			
+			ProjectPropertyExtension e = c.getMatchingExtension(i);
+			Color col = (e.getBgColor() != null) ? e.getBgColor() : baseColor;
+			r += col.getRed() * counts[i];
+			g += col.getGreen() * counts[i];
+			b += col.getBlue() * counts[i];
+		}
+		return new Color(r / c.getMatchCount(), g / c.getMatchCount(), b / c.getMatchCount());
 	}
 }
@@ -16,7 +16,6 @@ public class ProjectSizeBar extends SizeBar {
 	public ProjectSizeBar(ProjectDirEntry file, ProjectDirEntry tabRoot) throws Throwable {
 		super(file);
 		this.tabRoot = tabRoot;
-		barSize = determineBarSize(); // Has to be re-called here, because in the super constructor call, tabRoot is not yet set
 	}
 	
 	/**
@@ -28,8 +27,12 @@ public class ProjectSizeBar extends SizeBar {
 	@Override
 	protected float determineBarSize() throws Throwable {
 		if (tabRoot == null) return -1;
-		float parent = tabRoot.getLargestProject().getSize();
 		float me = file.getSize();
+		if (me < 0) return -1; // Size not loaded yet
+		ProjectDirEntry largest = tabRoot.getLargestProject();
+		if (largest == null) return -1; // Search still running
+		float parent = largest.getSize();
+		if (parent <= 0) return 0; // Only empty folders
 		return me / parent;
 	}
 }
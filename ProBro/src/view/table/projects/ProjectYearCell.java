@@ -1,7 +1,7 @@
 package view.table.projects;
 
-import main.Main;
 import model.ProjectDirEntry;
+import view.table.Sortable;
 
 /**
  * Class for representing year column in projects view
@@ -10,15 +10,48 @@ import model.ProjectDirEntry;
  *
  */
 @SuppressWarnings("rawtypes")
-public class ProjectYearCell implements Comparable {
+public class ProjectYearCell implements Comparable, Sortable {
 	
 	/**
 	 * File whose size shall be showed
 	 */
 	private ProjectDirEntry file;
 	
-	public ProjectYearCell(ProjectDirEntry file) {
+	/**
+	 * Project year
+	 */
+	private String year;
+	
+	/**
+	 * Is the year estimated?
+	 */
+	private boolean estimated;
+	
+	/**
+	 * Numerical year (sort key), -1 if there is none
+	 */
+	private int yearNumber;
+	
+	public ProjectYearCell(ProjectDirEntry file) throws Throwable {
 		this.file = file;
+		this.year = file.getProjectYear();
+		this.estimated = file.isProjectYearEstimated();
+		this.yearNumber = parseYear(year);
+	}
+	
+	/**
+	 * Returns the year as number, or -1 if it is no number
+	 * 
+	 * @param year
+	 * @return
+	 */
+	private static int parseYear(String year) {
+		if (year == null) return -1;
+		try {
+			return Integer.parseInt(year);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
 	}
 
 	/**
@@ -30,19 +63,40 @@ public class ProjectYearCell implements Comparable {
 		return file;
 	}
 	
+	/**
+	 * Returns the project year
+	 * 
+	 * @return
+	 */
+	public String getYear() {
+		return year;
+	}
+	
+	/**
+	 * Is the year estimated?
+	 * 
+	 * @return
+	 */
+	public boolean isEstimated() {
+		return estimated;
+	}
+	
+	/**
+	 * Sort key: The year
+	 * 
+	 */
+	@Override
+	public long getSortKey() {
+		return yearNumber;
+	}
+	
 	/**
 	 * Table sort comparator
 	 * 
 	 */
 	@Override
 	public int compareTo(Object o) {
-		try {
-			ProjectYearCell s = (ProjectYearCell)o;
-			return file.getProjectYear().compareTo(s.getFile().getProjectYear());
-			
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
-			return 0;
-		}
+		ProjectYearCell s = (ProjectYearCell)o;
+		return (yearNumber < s.yearNumber) ? -1 : ((yearNumber == s.yearNumber) ? 0 : 1);
 	}
 }
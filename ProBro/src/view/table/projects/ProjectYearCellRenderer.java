@@ -9,7 +9,6 @@ import javax.swing.UIManager;
 import javax.swing.table.DefaultTableCellRenderer;
 
 import main.Main;
-import model.ProjectDirEntry;
 
 /**
  * Class for rendering size bars in table cells
@@ -38,11 +37,11 @@ public class ProjectYearCellRenderer extends DefaultTableCellRenderer {
 	@Override
 	public Component getTableCellRendererComponent(JTable table, Object cell, boolean isSelected, boolean hasFocus, int row, int column) {
 		try {
-			ProjectDirEntry p = ((ProjectYearCell)cell).getFile();
+			ProjectYearCell c = (ProjectYearCell)cell;
 			
-			JLabel l = (JLabel) super.getTableCellRendererComponent(table, p.getProjectYear(), isSelected, hasFocus, row, column);
+			JLabel l = (JLabel) super.getTableCellRendererComponent(table, c.getYear(), isSelected, hasFocus, row, column);
 			
-			if (p.isProjectYearEstimated()) {
+			if (c.isEstimated()) {
 				l.setForeground(estimatedForegroundColor);
 				l.setBackground(estimatedColor);
 			} else {
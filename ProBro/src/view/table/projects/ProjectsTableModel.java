@@ -5,7 +5,9 @@ import main.Messages;
 import main.Utils;
 import model.DirEntry;
 import model.ProjectDirEntry;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import javax.swing.Icon;
 import view.table.Table;
 import view.table.TableModel;
@@ -48,6 +50,11 @@ public class ProjectsTableModel extends TableModel {
 	 */
 	private ProjectDirEntry dirEntry = null;                      
 	
+	/**
+	 * Rows: The projects of the current DirEntry
+	 */
+	private List<ProjectDirEntry> rows = new ArrayList<ProjectDirEntry>();
+	
 	/**
 	 *  We only set cell sizes once at the first call!
 	 */
@@ -56,47 +63,38 @@ public class ProjectsTableModel extends TableModel {
 	public ProjectsTableModel() {}
 	
 	/**
-	 * Defines the values shown in the table
+	 * Defines the values shown in the table (see TableModel.getValueAt())
 	 * 
 	 */
 	@Override
-	public Object getValueAt(int row, int column) {
-		try {
-			if (dirEntry == null) {
-				return null;
-			}
+	protected Object createValue(int row, int column) throws Throwable {
+		ProjectDirEntry file = rows.get(row);
+
+		switch (column) {
+		case 0:
+			return new ProjectYearCell(file); 
+		case 1:
+			return Utils.getIconCache().getDisplayName(file);
+		case 2:
+			return Utils.getIconCache().getDisplayName(file.getParentDirEntry());
+		case 3:
+			return new ProjectSizeBar(file, dirEntry); 
+		case 4:
+			return new ReadableSize(file);
+		case 5:
+			return file.getProjectLastModified().getTime();
+		}
 		
-			ProjectDirEntry file = dirEntry.getProjectList().get(row);
-	
-			switch (column) {
-			case 0:
-				return new ProjectYearCell(file); 
-			case 1:
-				return Utils.getFileSystemView().getSystemDisplayName(file);
-			case 2:
-				return Utils.getFileSystemView().getSystemDisplayName(file.getParentDirEntry());
-			case 3:
-				return new ProjectSizeBar(file, dirEntry); 
-			case 4:
-				return new ReadableSize(file);
-			case 5:
-				return file.getProjectLastModified().getTime();
-			}
-			
-			// Dynamic columns
-			if (Main.getProjectDefinition().getPropertyDefinitions().size() > 0) {
-				for (int i = 0; i < Main.getProjectDefinition().getPropertyDefinitions().size(); i++) {
-					if (i + columnCount == column) {
-						return new ProjectPropertyValue(file.getProjectProperties().get(i));
-					}
+		// Dynamic columns
+		if (Main.getProjectDefinition().getPropertyDefinitions().size() > 0) {
+			for (int i = 0; i < Main.getProjectDefinition().getPropertyDefinitions().size(); i++) {
+				if (i + columnCount == column) {
+					return new ProjectPropertyValue(file.getProjectProperties().get(i));
 				}
 			}
-
-			System.err.println(Messages.getString("Table_Errorstring", column)); 
-
-		} catch (Throwable e) {
-			Main.handleThrowable(e);
 		}
+
+		System.err.println(Messages.getString("Table_Errorstring", column)); 
 		return ""; 
 	}
 
@@ -201,7 +199,7 @@ public class ProjectsTableModel extends TableModel {
 	public int getRowCount() {
 		try {
 			if (dirEntry == null) return 0;
-			return dirEntry.getProjectList().size();
+			return rows.size();
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
@@ -219,7 +217,7 @@ public class ProjectsTableModel extends TableModel {
 	public ProjectDirEntry getRowDirEntry(int row) {
 		try {
 			if (dirEntry == null) return null;
-			return dirEntry.getProjectList().get(row);
+			return rows.get(row);
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
@@ -227,6 +225,16 @@ public class ProjectsTableModel extends TableModel {
 		}
 	}
 
+	/**
+	 * Returns the DirEntry whose children are shown in the table
+	 * 
+	 * @return
+	 */
+	@Override
+	public ProjectDirEntry getDirEntry() {
+		return dirEntry;
+	}
+
 	/**
 	 * Set a new DirEntry whose children shall be shown in the table
 	 * 
@@ -235,8 +243,30 @@ public class ProjectsTableModel extends TableModel {
 	@Override
 	public void setDirEntry(DirEntry d) throws Throwable {
 		this.dirEntry = (ProjectDirEntry)d;
+		
+		rows = null;
+		if (dirEntry != null) rows = dirEntry.getProjectList();
+		if (rows == null) rows = new ArrayList<ProjectDirEntry>();
+		
 		fireTableDataChanged();
 	}
+	
+	/**
+	 * Add the projects found by a running project search of the current DirEntry (see
+	 * LoadProjectsWorker). When the search is finished, the complete results are 
+	 * shown by setDirEntry() again.
+	 * 
+	 * @param found
+	 */
+	public void addProjects(List<ProjectDirEntry> found) throws Throwable {
+		if (dirEntry == null || dirEntry.projectsLoaded()) return;
+		
+		int first = rows.size();
+		for (ProjectDirEntry f : found) {
+			if (f.isProject()) rows.add(f);
+		}
+		if (rows.size() > first) fireTableRowsInserted(first, rows.size() - 1);
+	}
 
 	/**
 	 * Returns the file icon of a specific row
@@ -245,8 +275,8 @@ public class ProjectsTableModel extends TableModel {
 	 * @return
 	 */
 	public Icon getIcon(int row) throws Throwable {
-		if (dirEntry == null || dirEntry.getProjectList().size() == 0) return null;
-		return Utils.getFileSystemView().getSystemIcon(dirEntry.getProjectList().get(row));
+		if (rows.size() == 0) return null;
+		return Utils.getIconCache().getIcon(rows.get(row));
 	}
 
 	/**
@@ -0,0 +1,363 @@
+package view.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+import main.Main;
+import main.Messages;
+import model.DirEntry;
+
+/**
+ * Tree model showing the sub folders of DirEntry instances directly, without copying them
+ * into tree nodes. The nodes are the DirEntry instances themselves, below an invisible root
+ * holding the file system roots.
+ *
+ * The sub folders of a folder are loaded lazily (see TreeExpansionWorker): Until then, the
+ * folder has a placeholder child, so it can be expanded. The loaded sub folders are added
+ * in batches, with one insert event for each batch.
+ *
+ * All methods have to be called on the EDT.
+ *
+ * @author tweber
+ *
+ */
+public class DirTreeModel implements TreeModel {
+
+	/**
+	 * Placeholder child of folders whose sub folders are not loaded yet
+	 */
+	public static final Object PLACEHOLDER = new Object() {
+		@Override
+		public String toString() {
+			try {
+				return Messages.getString("Tree_Loading"); //$NON-NLS-1$
+			} catch (Throwable e) {
+				Main.handleThrowable(e);
+				return ""; //$NON-NLS-1$
+			}
+		}
+	};
+
+	/**
+	 * Invisible root node
+	 */
+	private Object root = new Object();
+
+	/**
+	 * File system roots
+	 */
+	private List<DirEntry> roots = new ArrayList<DirEntry>();
+
+	/**
+	 * Loaded sub folders by folder
+	 */
+	private Map<DirEntry, List<DirEntry>> folders = new IdentityHashMap<DirEntry, List<DirEntry>>();
+
+	/**
+	 * Folders whose sub folders are being loaded
+	 */
+	private Set<DirEntry> loading = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+
+	/**
+	 * Listeners
+	 */
+	private EventListenerList listeners = new EventListenerList();
+
+	/**
+	 * Set new file system roots. All loaded sub folders are discarded.
+	 *
+	 * @param roots
+	 */
+	public void setRoots(List<DirEntry> roots) {
+		this.roots = roots;
+		folders.clear();
+		loading.clear();
+		reload();
+	}
+
+	/**
+	 * Returns the file system roots
+	 *
+	 * @return
+	 */
+	public List<DirEntry> getRoots() {
+		return roots;
+	}
+
+	/**
+	 * Returns the loaded sub folders of the given folder, or null if not loaded yet
+	 *
+	 * @param folder
+	 * @return
+	 */
+	public List<DirEntry> getLoadedChildren(DirEntry folder) {
+		return folders.get(folder);
+	}
+
+	/**
+	 * Start loading the sub folders of the given folder.
+	 *
+	 * @param folder
+	 * @return false if they are loaded or being loaded already
+	 */
+	public boolean startLoading(DirEntry folder) {
+		if (!needsLoading(folder)) return false;
+		loading.add(folder);
+		return true;
+	}
+
+	/**
+	 * Have the sub folders of the given folder neither been loaded nor are being loaded?
+	 *
+	 * @param folder
+	 * @return
+	 */
+	public boolean needsLoading(DirEntry folder) {
+		return !folders.containsKey(folder) && !loading.contains(folder);
+	}
+
+	/**
+	 * Add a batch of loaded sub folders to the given folder. The placeholder is removed
+	 * with the first batch.
+	 *
+	 * @param folder
+	 * @param batch
+	 */
+	public void addChildren(DirEntry folder, List<DirEntry> batch) {
+		TreePath path = getPath(folder);
+		List<DirEntry> children = folders.get(folder);
+		if (children == null) {
+			children = new ArrayList<DirEntry>();
+			folders.put(folder, children);
+			fireTreeNodesRemoved(path, new int[] { 0 }, new Object[] { PLACEHOLDER });
+		}
+		if (batch.isEmpty()) return;
+
+		int[] indices = new int[batch.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = children.size() + i;
+		}
+		children.addAll(batch);
+		fireTreeNodesInserted(path, indices, batch.toArray());
+	}
+
+	/**
+	 * Loading the sub folders of the given folder has been finished. If there were none,
+	 * the placeholder is removed now.
+	 *
+	 * @param folder
+	 */
+	public void finishLoading(DirEntry folder) {
+		if (!loading.remove(folder)) return;
+		if (!folders.containsKey(folder)) addChildren(folder, new ArrayList<DirEntry>());
+	}
+
+	/**
+	 * Take over the current sub folders of the given folder after it has been revalidated,
+	 * if they have been loaded. The loaded sub folders of folders which still exist are kept.
+	 *
+	 * @param folder
+	 */
+	public void refresh(DirEntry folder) throws Throwable {
+		List<DirEntry> old = folders.get(folder);
+		if (old == null) return;
+
+		List<DirEntry> children = new ArrayList<DirEntry>();
+		for (DirEntry child : folder.getChildren()) {
+			if (child.isDirectory()) children.add(child);
+		}
+
+		Set<DirEntry> kept = Collections.newSetFromMap(new IdentityHashMap<DirEntry, Boolean>());
+		kept.addAll(children);
+		for (DirEntry child : old) {
+			if (!kept.contains(child)) forget(child);
+		}
+
+		folders.put(folder, children);
+		fireTreeStructureChanged(getPath(folder));
+	}
+
+	/**
+	 * Insert a sub folder which has been added to the given folder, if its sub folders
+	 * have been loaded.
+	 *
+	 * @param folder
+	 * @param child
+	 */
+	public void insert(DirEntry folder, DirEntry child) {
+		List<DirEntry> children = folders.get(folder);
+		if (children == null) return;
+
+		children.add(child);
+		fireTreeNodesInserted(getPath(folder), new int[] { children.size() - 1 }, new Object[] { child });
+	}
+
+	/**
+	 * Remove a sub folder which has been removed from the given folder, if its sub folders
+	 * have been loaded.
+	 *
+	 * @param folder
+	 * @param child
+	 */
+	public void remove(DirEntry folder, DirEntry child) {
+		List<DirEntry> children = folders.get(folder);
+		if (children == null) return;
+
+		int index = getIndexOfChild(folder, child);
+		if (index < 0) return;
+
+		children.remove(index);
+		forget(child);
+		fireTreeNodesRemoved(getPath(folder), new int[] { index }, new Object[] { child });
+	}
+
+	/**
+	 * Discard the loaded sub folders of the given folder and all its loaded descendants
+	 *
+	 * @param folder
+	 */
+	private void forget(DirEntry folder) {
+		loading.remove(folder);
+		List<DirEntry> children = folders.remove(folder);
+		if (children == null) return;
+		for (DirEntry child : children) {
+			forget(child);
+		}
+	}
+
+	/**
+	 * Returns the tree path of the given folder
+	 *
+	 * @param folder
+	 * @return
+	 */
+	public TreePath getPath(DirEntry folder) {
+		LinkedList<Object> path = new LinkedList<Object>();
+		for (DirEntry e = folder; e != null; e = e.getParentDirEntry()) {
+			path.addFirst(e);
+		}
+		path.addFirst(root);
+		return new TreePath(path.toArray());
+	}
+
+	/**
+	 * The given node has changed its appearance (for example its icon)
+	 *
+	 * @param path
+	 */
+	public void nodeChanged(TreePath path) {
+		TreePath parent = path.getParentPath();
+		if (parent == null) return;
+
+		int index = getIndexOfChild(parent.getLastPathComponent(), path.getLastPathComponent());
+		if (index < 0) return;
+		fireTreeNodesChanged(parent, new int[] { index }, new Object[] { path.getLastPathComponent() });
+	}
+
+	/**
+	 * Notify the listeners that the whole tree has changed
+	 *
+	 */
+	public void reload() {
+		fireTreeStructureChanged(new TreePath(root));
+	}
+
+	@Override
+	public Object getRoot() {
+		return root;
+	}
+
+	@Override
+	public Object getChild(Object parent, int index) {
+		if (parent == root) return roots.get(index);
+
+		List<DirEntry> children = folders.get(parent);
+		if (children == null) return PLACEHOLDER;
+		return children.get(index);
+	}
+
+	@Override
+	public int getChildCount(Object parent) {
+		if (parent == root) return roots.size();
+		if (parent == PLACEHOLDER) return 0;
+
+		List<DirEntry> children = folders.get(parent);
+		if (children == null) return ((DirEntry)parent).isDirectory() ? 1 : 0;
+		return children.size();
+	}
+
+	@Override
+	public boolean isLeaf(Object node) {
+		if (node == root) return false;
+		return getChildCount(node) == 0;
+	}
+
+	@Override
+	public int getIndexOfChild(Object parent, Object child) {
+		if (parent == null || child == null) return -1;
+		if (parent == root) return roots.indexOf(child);
+
+		List<DirEntry> children = folders.get(parent);
+		if (children == null) return (child == PLACEHOLDER) ? 0 : -1;
+
+		// Identity search, DirEntry.equals() compares the paths
+		for (int i = 0; i < children.size(); i++) {
+			if (children.get(i) == child) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public void valueForPathChanged(TreePath path, Object newValue) {
+		// Not editable
+	}
+
+	@Override
+	public void addTreeModelListener(TreeModelListener l) {
+		listeners.add(TreeModelListener.class, l);
+	}
+
+	@Override
+	public void removeTreeModelListener(TreeModelListener l) {
+		listeners.remove(TreeModelListener.class, l);
+	}
+
+	private void fireTreeNodesInserted(TreePath path, int[] indices, Object[] children) {
+		TreeModelEvent e = new TreeModelEvent(this, path, indices, children);
+		for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+			l.treeNodesInserted(e);
+		}
+	}
+
+	private void fireTreeNodesRemoved(TreePath path, int[] indices, Object[] children) {
+		TreeModelEvent e = new TreeModelEvent(this, path, indices, children);
+		for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+			l.treeNodesRemoved(e);
+		}
+	}
+
+	private void fireTreeNodesChanged(TreePath path, int[] indices, Object[] children) {
+		TreeModelEvent e = new TreeModelEvent(this, path, indices, children);
+		for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+			l.treeNodesChanged(e);
+		}
+	}
+
+	private void fireTreeStructureChanged(TreePath path) {
+		TreeModelEvent e = new TreeModelEvent(this, path);
+		for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+			l.treeStructureChanged(e);
+		}
+	}
+}
@@ -2,20 +2,21 @@ package view.tree;
 
 import main.Main;
 import model.DirEntry;
+import model.DirWatcher;
 import model.ProjectDirEntry;
 
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
+import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.TreePath;
 
 import view.MainPanel;
@@ -50,42 +51,25 @@ public class Tree {
 	public JScrollPane treeScroll;
 	
 	/** 
-	 * Tree model reference
+	 * Tree model reference (the nodes are the DirEntry instances of the folders)
 	 */
-	private DefaultTreeModel treeModel;
-	
-	/**
-	 * Root node of the tree (holding the file system roots)
-	 */
-	private DefaultMutableTreeNode rootNode;
-	
-	/**
-	 * List of file system roots
-	 */
-	private Collection<DirEntry> fileSystemRoots = new ArrayList<DirEntry>();
-	
-	/**
-	 * List of nodes for each file system root
-	 */
-	private Collection<DefaultMutableTreeNode> fileSystemRootNodes = new ArrayList<DefaultMutableTreeNode>();
+	private DirTreeModel treeModel;
 
 	public Tree(MainPanel gui) throws Throwable {
 		this.gui = gui;
 		
-		// Build the tree from ground up: Start with the root and attach it
-		// to the tree by its treeModel attribute
-		rootNode = new DefaultMutableTreeNode();
-		treeModel = new DefaultTreeModel(rootNode);
+		treeModel = new DirTreeModel();
 
 		// Add a selection listener which calls showChildren
 		TreeSelectionListener treeSelectionListener = new TreeSelectionListener() {
 			@Override
 			public void valueChanged(TreeSelectionEvent tse) {
 				try {
-					DefaultMutableTreeNode node = (DefaultMutableTreeNode) tse.getPath().getLastPathComponent();
+					// Placeholders can not be shown
+					if (!(tse.getPath().getLastPathComponent() instanceof DirEntry)) return;
 					
 					// Show children
-					showChildren(node);
+					showChildren(tse.getPath());
 					
 				} catch (Throwable e) {
 					Main.handleThrowable(e);
@@ -93,6 +77,25 @@ public class Tree {
 			}
 		};
 
+		// Load the sub folders when a folder is expanded which has not been loaded yet
+		TreeWillExpandListener treeWillExpandListener = new TreeWillExpandListener() {
+			@Override
+			public void treeWillExpand(TreeExpansionEvent tee) {
+				try {
+					Object node = tee.getPath().getLastPathComponent();
+					if (node instanceof DirEntry && treeModel.needsLoading((DirEntry)node)) {
+						loadChildren(tee.getPath());
+					}
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				}
+			}
+
+			@Override
+			public void treeWillCollapse(TreeExpansionEvent tee) {
+			}
+		};
+
 		// Add all root files as initial nodes to the tree
 		initTree();
 		
@@ -101,8 +104,8 @@ public class Tree {
 
 		tree.setRootVisible(false);
 		tree.addTreeSelectionListener(treeSelectionListener);
+		tree.addTreeWillExpandListener(treeWillExpandListener);
 		tree.setCellRenderer(new TreeCellRenderer());
-		tree.expandRow(0);
 		treeScroll= new JScrollPane(tree);
 		tree.setVisibleRowCount(15);
 
@@ -112,38 +115,44 @@ public class Tree {
 	}
 
 	/**
-	 * Add all root files as initial nodes to the tree root node
+	 * Icons or display names have been looked up (see IconCache): Update the visible nodes, 
+	 * as their sizes might have changed.
 	 * 
-	 * @param root
 	 */
-	public void initTree() throws Throwable {
-		rootNode.removeAllChildren();
-		fileSystemRoots = new ArrayList<DirEntry>();
-		fileSystemRootNodes = new ArrayList<DefaultMutableTreeNode>();
+	public void iconsLoaded() throws Throwable {
+		Rectangle r = tree.getVisibleRect();
+		int first = tree.getClosestRowForLocation(r.x, r.y);
+		int last = tree.getClosestRowForLocation(r.x, r.y + r.height);
+		if (first < 0) return;
 		
-		// Add all file system roots as initial nodes to the tree
-		File[] fileSystemRootFiles = File.listRoots();
-
-		for (File rootFile : fileSystemRootFiles) {
-			DefaultMutableTreeNode node = new DefaultMutableTreeNode(rootFile);
-			fileSystemRootNodes.add(node);
-			rootNode.add(node);
-			
+		for (int i = first; i <= last; i++) {
+			TreePath path = tree.getPathForRow(i);
+			if (path != null) treeModel.nodeChanged(path);
+		}
+	}
 
-			// Create an initial DirEntry Root for each if the file system roots
-			ProjectDirEntry rootDirEntry = new ProjectDirEntry(rootFile.getAbsolutePath());
-			fileSystemRoots.add(rootDirEntry);
-			
-			// Also expand the first level of all roots initially
-			List<DirEntry> children = rootDirEntry.getChildren();
-			if (children != null) {
-				for (DirEntry child : children) {
-					if (child.isDirectory()) {
-						node.add(new DefaultMutableTreeNode(child));
-					}
-				}
-			}
+	/**
+	 * Add all root files as initial nodes to the tree. Their sub folders are loaded
+	 * when they are expanded or selected.
+	 * 
+	 */
+	public void initTree() throws Throwable {
+		List<DirEntry> fileSystemRoots = new ArrayList<DirEntry>();
+		
+		// Create an initial DirEntry Root for each if the file system roots
+		for (File rootFile : File.listRoots()) {
+			fileSystemRoots.add(new ProjectDirEntry(rootFile.getAbsolutePath()));
 		}
+		treeModel.setRoots(fileSystemRoots);
+	}
+	
+	/**
+	 * Returns the tree model
+	 * 
+	 * @return
+	 */
+	public DirTreeModel getModel() {
+		return treeModel;
 	}
 	
 	/**
@@ -158,38 +167,43 @@ public class Tree {
 	/**
 	 * See showChildren(.., ..)
 	 * 
-	 * @param node
+	 * @param path
 	 */
-	private void showChildren(final DefaultMutableTreeNode node) throws Throwable {
-		showChildren(node, false);
+	private void showChildren(final TreePath path) throws Throwable {
+		showChildren(path, false);
 	}
 	
 	/**
 	 * Add the files that are contained within the directory of this node.
 	 * 
-	 * @param node
+	 * @param path
 	 */
-	private void showChildren(final DefaultMutableTreeNode node, boolean sync) throws Throwable {
+	private void showChildren(final TreePath path, boolean sync) throws Throwable {
 		// Disable tree and show progress bar (this will be terminated inside 
 		// the ProBroTreeLoader after finish)
 		gui.setActive(false);
 		
 		// Create and launch the worker thread to load the new children to the tree
-		TreeExpansionWorker worker = new TreeExpansionWorker(gui, node);
+		TreeExpansionWorker worker = new TreeExpansionWorker(gui, path, true);
 		if (!sync) {
-			worker.execute();
+			worker.schedule();
 		} else {
 			worker.executeSync();
 		}			
 		
 		// Update selected file to the table / details
-		DirEntry n = null;
-		try {
-			n = (DirEntry) node.getUserObject();
-			gui.details.setFileDetails(n);
-		} catch (Throwable t) {
-			// TODO Selecting root does not work right now. (PRIO very low) 
-		}
+		gui.details.setFileDetails((DirEntry)path.getLastPathComponent());
+	}
+	
+	/**
+	 * Load the sub folders of the folder of this node in the background, without 
+	 * showing it (the node is being expanded).
+	 * 
+	 * @param path
+	 */
+	private void loadChildren(TreePath path) throws Throwable {
+		TreeExpansionWorker worker = new TreeExpansionWorker(gui, path, false);
+		worker.schedule();
 	}
 	
 	/**
@@ -198,16 +212,10 @@ public class Tree {
 	 * @param path
 	 */
 	public void expandToPath(String path) throws Throwable {
-		for (DefaultMutableTreeNode d : fileSystemRootNodes) {
-			for (int num = 0; num < d.getChildCount(); num++) {
-				if (d.getChildAt(num) instanceof DefaultMutableTreeNode) {
-					DefaultMutableTreeNode tn = (DefaultMutableTreeNode)d.getChildAt(num);
-					DirEntry de = (DirEntry)tn.getUserObject();
-					if (path.startsWith(de.getAbsolutePath())) {
-						// Correct root: expand here
-						expandToPath(tn, path);
-					}
-				}
+		for (DirEntry d : treeModel.getRoots()) {
+			if (path.startsWith(d.getAbsolutePath())) {
+				// Correct root: expand here
+				expandToPath(treeModel.getPath(d), path);
 			}
 		}
 	}
@@ -218,8 +226,9 @@ public class Tree {
 	 * @param node
 	 * @param path
 	 */
-	private void expandToPath(DefaultMutableTreeNode node, String path) throws Throwable {
-		if (path.equals(((DirEntry)node.getUserObject()).getAbsolutePath())) {
+	private void expandToPath(TreePath node, String path) throws Throwable {
+		DirEntry folder = (DirEntry)node.getLastPathComponent();
+		if (path.equals(folder.getAbsolutePath())) {
 			showChildren(node, true);
 			return;
 		}
@@ -227,18 +236,45 @@ public class Tree {
 		// Trigger expansion thread
 		showChildren(node, true);
 		
-		for (int num = 0; num < node.getChildCount(); num++) {
-			if (node.getChildAt(num) instanceof DefaultMutableTreeNode) {
-				DefaultMutableTreeNode child = (DefaultMutableTreeNode)node.getChildAt(num);
-				DirEntry d = (DirEntry)child.getUserObject();
-				if (path.startsWith(d.getAbsolutePath())) {
-					// Continue expanding
-					expandToPath(child, path);
-				}
+		List<DirEntry> children = treeModel.getLoadedChildren(folder);
+		if (children == null) return;
+		for (DirEntry d : children) {
+			if (path.startsWith(d.getAbsolutePath())) {
+				// Continue expanding
+				expandToPath(node.pathByAddingChild(d), path);
 			}
 		}			
 	}
 	
+	/**
+	 * Update the child nodes of the node representing the given folder, after the folder has 
+	 * been revalidated. Nodes of folders which still exist are kept (including their own
+	 * children), so the expansion state of the tree is preserved.
+	 * 
+	 * @param folder
+	 */
+	public void refreshNode(DirEntry folder) throws Throwable {
+		treeModel.refresh(folder);
+	}
+	
+	/**
+	 * A child of a folder has been added or removed (see DirWatcher): Insert or remove 
+	 * its node, if the node of the folder has been loaded already.
+	 * 
+	 * @param folder
+	 * @param child
+	 * @param change
+	 */
+	public void childChanged(DirEntry folder, DirEntry child, int change) throws Throwable {
+		if (!child.isDirectory() || change == DirWatcher.CHANGED) return;
+		
+		if (change == DirWatcher.ADDED) {
+			treeModel.insert(folder, child);
+		} else {
+			treeModel.remove(folder, child);
+		}
+	}
+	
 	/**
 	 * Reload the tree after changing its nodes
 	 * 
@@ -250,19 +286,18 @@ public class Tree {
 	/**
 	 * Expand the tree to a specific node (tree only operation, no file system loading etc) 
 	 *  
-	 * @param node
+	 * @param path
 	 */
-	public void expandNode(DefaultMutableTreeNode node) throws Throwable {
-		tree.expandPath(new TreePath(node.getPath()));	
+	public void expandNode(TreePath path) throws Throwable {
+		tree.expandPath(path);	
 	}
 
 	/**
 	 * Select a specific node (will trigger the selection event of the tree!)
 	 * 
-	 * @param node
+	 * @param path
 	 */
-	public void selectNode(DefaultMutableTreeNode node) throws Throwable {
-		TreePath path = new TreePath(node.getPath());
+	public void selectNode(TreePath path) throws Throwable {
 		tree.setSelectionPath(path);
 		tree.scrollPathToVisible(path);
 	}
@@ -270,10 +305,9 @@ public class Tree {
 	/**
 	 * Scroll the tree to a specific node
 	 * 
-	 * @param node
+	 * @param path
 	 */
-	public void scrollToNode(DefaultMutableTreeNode node) throws Throwable {
-		TreePath path = new TreePath(node.getPath());
+	public void scrollToNode(TreePath path) throws Throwable {
 		tree.scrollPathToVisible(path);
 	}
 }
@@ -2,10 +2,8 @@ package view.tree;
 import java.awt.Component;
 import java.io.File;
 
-import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JTree;
-import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 
 import main.Main;
@@ -23,11 +21,6 @@ class TreeCellRenderer extends DefaultTreeCellRenderer {
 	 */
 	private JLabel label;
 	
-	/**
-	 * Helper to get nice folder icons
-	 */
-	private JFileChooser j = new JFileChooser();
-
 	public TreeCellRenderer() throws Throwable {
 		label = new JLabel();
 		label.setOpaque(true);
@@ -39,13 +32,18 @@ class TreeCellRenderer extends DefaultTreeCellRenderer {
 	@Override
 	public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
 		try {
-			DefaultMutableTreeNode node = (DefaultMutableTreeNode) value;
-			File file = (File)node.getUserObject();
-			
-			if (file != null) label.setIcon(j.getUI().getFileView(j).getIcon(file)); 
-			label.setText(Utils.getFileSystemView().getSystemDisplayName(file));
-			
-			if (file != null) label.setToolTipText(file.getPath());
+			if (value instanceof File) {
+				File file = (File)value;
+				
+				label.setIcon(Utils.getIconCache().getIcon(file)); 
+				label.setText(Utils.getIconCache().getDisplayName(file));
+				label.setToolTipText(file.getPath());
+			} else {
+				// Placeholder for sub folders not loaded yet
+				label.setIcon(null);
+				label.setText(String.valueOf(value));
+				label.setToolTipText(null);
+			}
 	
 			if (selected) {
 				label.setBackground(backgroundSelectionColor);
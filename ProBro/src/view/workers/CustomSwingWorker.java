@@ -1,14 +1,27 @@
 package view.workers;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.swing.JPanel;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 import view.MainPanel;
 import main.Main;
+import main.Utils;
+import model.DirEntry;
 
 /**
  * Worker base class for workers which should be shown in the worker panel.
  * 
+ * Progress and GUI updates of the workers (see setProgressMaximum(), setProgressValue(), 
+ * updateText(), repaintDetails(), sizesLoaded()) can be posted from any thread. They are collected and 
+ * applied on the EDT at most every UPDATE_INTERVAL milliseconds, so the GUI load does not
+ * depend on how many files a worker processes.
+ * 
  * @author xwebert
  *
  * @param <T>
@@ -16,6 +29,21 @@ import main.Main;
  */
 public abstract class CustomSwingWorker<T, V> extends SwingWorker<T, V> {
 	
+	/**
+	 * Min. time between two GUI updates in milliseconds (20 Hz)
+	 */
+	private static final int UPDATE_INTERVAL = 50;
+	
+	/**
+	 * Priority classes (see getPriority() and WorkerScheduler): Expansion of the tree the 
+	 * user is waiting for, work for the rows visible in the table, scans in the background, 
+	 * and archiving.
+	 */
+	public static final int PRIORITY_INTERACTIVE = 0;
+	public static final int PRIORITY_VISIBLE = 1;
+	public static final int PRIORITY_BACKGROUND = 2;
+	public static final int PRIORITY_ARCHIVING = 3;
+	
 	/**
 	 * Main panel reference
 	 */
@@ -42,6 +70,33 @@ public abstract class CustomSwingWorker<T, V> extends SwingWorker<T, V> {
 	 * Do not remove the worker when finished
 	 */
 	private boolean stayAfterFinish = false; 
+	
+	/**
+	 * Timer applying the posted updates on the EDT, running while updates are posted
+	 */
+	private Timer updateTimer;
+	
+	/**
+	 * Posted progress bar maximum, or -1 if unchanged
+	 */
+	private int progressMaximum = -1;
+	
+	/**
+	 * Posted progress bar value
+	 */
+	private int progressValue = 0;
+	
+	/**
+	 * Posted updates not applied yet
+	 */
+	private boolean progressChanged = false;
+	private boolean textChanged = false;
+	private boolean detailsChanged = false;
+	
+	/**
+	 * Posted folders with new sizes not shown in the table yet
+	 */
+	private List<DirEntry> loadedSizes = new ArrayList<DirEntry>();
 
 	public CustomSwingWorker(MainPanel gui) throws Throwable {
 		this(gui, false, false);
@@ -58,10 +113,51 @@ public abstract class CustomSwingWorker<T, V> extends SwingWorker<T, V> {
 		
 		if (canBeKilled) kill = 0;
 		
+		updateTimer = new Timer(UPDATE_INTERVAL, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				try {
+					applyUpdates();
+					
+				} catch (Throwable t) {
+					Main.handleThrowable(t);
+				}
+			}
+		});
+		
 		// Automatically register this to the workers queue
 		gui.workers.addWorker(this);
 	}
 
+	/**
+	 * Execute the worker in a background thread of the WorkerScheduler, according to its 
+	 * priority. Use this instead of execute().
+	 * 
+	 */
+	public void schedule() throws Throwable {
+		Utils.getWorkerScheduler().schedule(this);
+	}
+	
+	/**
+	 * Returns the priority class of the worker (see PRIORITY_*). Background scan by default.
+	 * 
+	 * @return
+	 */
+	public int getPriority() {
+		return PRIORITY_BACKGROUND;
+	}
+	
+	/**
+	 * Returns the position of the worker in the queue of the WorkerScheduler, or 0 if it 
+	 * is not waiting.
+	 * 
+	 * @return
+	 */
+	public int getQueuePosition() throws Throwable {
+		if (sync) return 0;
+		return Utils.getWorkerScheduler().getQueuePosition(this);
+	}
+	
 	/**
 	 * Execute the worker synchronously without a new thread
 	 * 
@@ -102,6 +198,123 @@ public abstract class CustomSwingWorker<T, V> extends SwingWorker<T, V> {
 		return !(kill == -1);
 	}
 
+	/**
+	 * Set the maximum of the progress bar (switches off the indeterminate mode). 
+	 * Can be called from any thread.
+	 * 
+	 * @param max
+	 */
+	protected synchronized void setProgressMaximum(int max) {
+		progressMaximum = max;
+		progressChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Set the value of the progress bar. Can be called from any thread.
+	 * 
+	 * @param value
+	 */
+	protected synchronized void setProgressValue(int value) {
+		progressValue = value;
+		progressChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Increase the value of the progress bar by one. Can be called from any thread.
+	 * 
+	 */
+	protected synchronized void incrementProgress() {
+		progressValue++;
+		progressChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Update the texts of the GUI panel (see getOutputText()). Can be called from any thread.
+	 * 
+	 */
+	protected synchronized void updateText() {
+		textChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Repaint the details panel, for example to show new sizes. Can be called from any thread.
+	 * 
+	 */
+	protected synchronized void repaintDetails() {
+		detailsChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Show the new sizes of a folder in the table (the cached size cells of the rows get 
+	 * updated) and the details panel. Can be called from any thread.
+	 * 
+	 * @param entry
+	 */
+	protected synchronized void sizesLoaded(DirEntry entry) {
+		loadedSizes.add(entry);
+		detailsChanged = true;
+		postUpdate();
+	}
+	
+	/**
+	 * Make sure the posted updates get applied (by the timer)
+	 * 
+	 */
+	private void postUpdate() {
+		if (!updateTimer.isRunning()) updateTimer.start();
+	}
+	
+	/**
+	 * Apply the posted updates to the GUI (on the EDT). The timer is stopped if there 
+	 * was nothing to do.
+	 * 
+	 */
+	private void applyUpdates() throws Throwable {
+		int max;
+		int value;
+		boolean progress;
+		boolean text;
+		boolean details;
+		List<DirEntry> sizes = null;
+		synchronized(this) {
+			max = progressMaximum;
+			value = progressValue;
+			progress = progressChanged;
+			text = textChanged;
+			details = detailsChanged;
+			if (loadedSizes.size() > 0) {
+				sizes = loadedSizes;
+				loadedSizes = new ArrayList<DirEntry>();
+			}
+			
+			progressMaximum = -1;
+			progressChanged = false;
+			textChanged = false;
+			detailsChanged = false;
+			
+			if (!progress && !text && !details) {
+				updateTimer.stop();
+				return;
+			}
+		}
+		
+		if (progress) {
+			if (max >= 0) {
+				panel.progressBar.setIndeterminate(false);
+				panel.progressBar.setMaximum(max);
+			}
+			panel.progressBar.setValue(value);
+		}
+		if (text) panel.update();
+		if (sizes != null) gui.details.table.sizesLoaded(sizes);
+		if (details) gui.details.repaint();
+	}
+	
 	/**
 	 * Finish routine (implement in child classes if necessary)
 	 * 
@@ -123,6 +336,12 @@ public abstract class CustomSwingWorker<T, V> extends SwingWorker<T, V> {
 	@Override
 	protected void done() {
 		try {
+			// Apply the last updates now
+			applyUpdates();
+			synchronized(this) {
+				updateTimer.stop();
+			}
+			
 			panel.progressBar.setIndeterminate(false);
 			panel.progressBar.setMaximum(100);
 			panel.progressBar.setValue(100);
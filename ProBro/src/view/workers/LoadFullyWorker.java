@@ -1,11 +1,15 @@
 package view.workers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import view.MainPanel;
 import main.Main;
 import main.Messages;
+import main.Utils;
 import model.DirEntry;
+import model.LoadFullyTask;
 
 /**
  * Worker class implementing the deep loading of folders. This is used every time the
@@ -21,6 +25,11 @@ public class LoadFullyWorker extends CustomSwingWorker<Void, Void> {
 	 */
 	public DirEntry rootFile; 
 	
+	/**
+	 * Cancel flag for the parallel scan tasks
+	 */
+	private AtomicBoolean cancelled = new AtomicBoolean(false);
+	
 	public LoadFullyWorker(MainPanel gui) throws Throwable {
 		super(gui, true);
 	}
@@ -48,6 +57,7 @@ public class LoadFullyWorker extends CustomSwingWorker<Void, Void> {
 	public void cancel() {
 		try {
 			super.cancel();        // Cancel in subclass
+			cancelled.set(true);   // Cancel the scan tasks
 			super.cancel(true);    // Cancel in SwingWorker (Thread kill)
 			
 		} catch (Throwable e) {
@@ -56,8 +66,9 @@ public class LoadFullyWorker extends CustomSwingWorker<Void, Void> {
 	}
 	
 	/**
-	 * Load the data. This is done child per child to be able to provide
-	 * progress information and update the progress bar of the worker meaningfully.
+	 * Load the data. All children are loaded in parallel by the fork/join pool, the 
+	 * worker waits for them child per child to be able to provide progress information 
+	 * and update the progress bar of the worker meaningfully.
 	 * 
 	 * @throws Throwable 
 	 * 
@@ -68,29 +79,40 @@ public class LoadFullyWorker extends CustomSwingWorker<Void, Void> {
 			return;
 		}
 		// Now we know the file name
-		panel.update();
+		updateText();
 
 		// We process every child separately to get progress information
 		List<DirEntry> first = rootFile.getChildren();
 		
-		panel.progressBar.setIndeterminate(false);
-		panel.progressBar.setMaximum(first.size());
-		panel.progressBar.setValue(0);
+		setProgressMaximum(first.size());
+		setProgressValue(0);
+		
+		List<LoadFullyTask> tasks = new ArrayList<LoadFullyTask>();
+		for (DirEntry child : first) {
+			LoadFullyTask task = new LoadFullyTask(child, cancelled);
+			Utils.getForkJoinPool().execute(task);
+			tasks.add(task);
+		}
 		
-		for (int num = 0; num < first.size(); num++) {
+		for (int num = 0; num < tasks.size(); num++) {
 			if (isKilled()) return;
-			first.get(num).loadFully();
-			panel.progressBar.setValue(num+1);
-			gui.details.repaint();
+			tasks.get(num).join();
+			setProgressValue(num+1);
+			sizesLoaded(first.get(num));
 		}
+		if (isKilled()) return;
 		
 		// Finally, load the selected file. This won´t take as long as 
 		// before because the children are already all fully loaded by now.
-		rootFile.loadFully();
+		// (as a task, so it is not loaded twice if another scan is loading it)
+		Utils.getForkJoinPool().invoke(new LoadFullyTask(rootFile, cancelled));
+		
+		// Remember the results for the next time
+		Main.getScanIndex().store();
 	}
 	
 	/**
-	 * Finished loading of children: Reactivate tree selection, and repaint the GUI.
+	 * Finished loading of children: Reactivate tree selection, and show the new sizes.
 	 * 
 	 */
 	@Override
@@ -100,6 +122,11 @@ public class LoadFullyWorker extends CustomSwingWorker<Void, Void> {
 			
 			gui.setActive(true);
 			
+			// Keep the loaded data up to date
+			if (rootFile != null && !isKilled()) gui.watch(rootFile);
+			
+			List<DirEntry> children = (rootFile != null) ? rootFile.getLoadedChildren() : null;
+			if (children != null) gui.details.table.sizesLoaded(children);
 			gui.details.repaint();
 			gui.repaint();
 			
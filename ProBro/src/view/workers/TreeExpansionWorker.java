@@ -1,17 +1,18 @@
 package view.workers;
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreePath;
 
 import view.MainPanel;
 import main.Main;
 import main.Messages;
 import model.DirEntry;
+import model.DirScanner;
 
 /**
  * Loader for the file tree. This is used in a background thread when a node is opened.
+ * The sub folders are added to the tree model in batches (see DirTreeModel.addChildren()).
  * 
  * @author tweber
  *
@@ -21,11 +22,29 @@ public class TreeExpansionWorker extends CustomSwingWorker<Void, DirEntry> {
 	/**
 	 * The node to expand
 	 */
-	private DefaultMutableTreeNode node;     
+	private TreePath node;     
 	
-	public TreeExpansionWorker(MainPanel gui, DefaultMutableTreeNode node) throws Throwable {
+	/**
+	 * The folder of the node
+	 */
+	private DirEntry folder;
+	
+	/**
+	 * Load the sub folders? False if they are loaded or being loaded already.
+	 */
+	private boolean load;
+	
+	/**
+	 * Show the folder in the table and select its node? False if the node is just expanded.
+	 */
+	private boolean show;
+	
+	public TreeExpansionWorker(MainPanel gui, TreePath node, boolean show) throws Throwable {
 		super(gui);
 		this.node = node;
+		this.folder = (DirEntry)node.getLastPathComponent();
+		this.show = show;
+		this.load = gui.tree.getModel().startLoading(folder);
 	}
 	
 	/**
@@ -48,51 +67,55 @@ public class TreeExpansionWorker extends CustomSwingWorker<Void, DirEntry> {
 	 * 
 	 */
 	private void createNode() throws Throwable {
-		DirEntry file = null;
-		try {
-			file = (DirEntry)node.getUserObject();
-		} catch(Throwable t) {
-			return;
-		}
-
-		if (file.isDirectory()) {
-			List<DirEntry> files = file.getChildren();
+		if (folder.isDirectory()) {
+			List<DirEntry> files;
+			if (show && !sync && folder.getLoadedChildren() == null) {
+				// Huge folders: Show the children in the table while listing
+				gui.details.table.startTableData(folder);
+				files = folder.getChildren(new DirScanner.Listener() {
+					@Override
+					public void listed(List<DirEntry> chunk) throws Throwable {
+						gui.details.table.addTableData(folder, chunk);
+					}
+				});
+			} else {
+				files = folder.getChildren();
+			}
 			
-			panel.progressBar.setIndeterminate(false);
-			panel.progressBar.setMaximum(files.size());
+			setProgressMaximum(files.size());
 			
-			if (node.isLeaf()) {
-				panel.progressBar.setValue(0);
+			if (load) {
+				setProgressValue(0);
 				
+				// Synchronously, all sub folders are added in one batch
+				List<DirEntry> chunk = new ArrayList<DirEntry>();
 				int n=0;
 				for (DirEntry child : files) {
 					if (child.isDirectory()) {
 						if (sync) {
-							List<DirEntry> chunk = new ArrayList<DirEntry>();
 							chunk.add(child);
-							process(chunk);
 						} else {
 							publish(child);
 						}
 					}
-					panel.progressBar.setValue(n);
+					setProgressValue(n);
 					n++;
 				}
+				if (sync) process(chunk);
 			}
-			gui.details.table.setTableData(file);
+			if (show) gui.details.table.setTableData(folder);
 		}
 	}
 
 	/**
-	 * Add nodes for files (called by the framework, perhaps in chunks)
+	 * Add nodes for files (called by the framework, in chunks). Each chunk is inserted 
+	 * with one event.
 	 * 
 	 */
 	@Override
 	protected void process(List<DirEntry> chunks) {
 		try {
-			for (File child : chunks) {
-				node.add(new DefaultMutableTreeNode(child));
-			}
+			gui.tree.getModel().addChildren(folder, chunks);
 		} catch (Throwable t) {
 			Main.handleThrowable(t);
 		}
@@ -107,6 +130,9 @@ public class TreeExpansionWorker extends CustomSwingWorker<Void, DirEntry> {
 		try {
 			super.done();
 			
+			if (load) gui.tree.getModel().finishLoading(folder);
+			if (!show) return;
+			
 			gui.tree.expandNode(node);
 			gui.tree.scrollToNode(node);
 			
@@ -117,6 +143,15 @@ public class TreeExpansionWorker extends CustomSwingWorker<Void, DirEntry> {
 		}
 	}
 
+	/**
+	 * Priority class for the scheduler
+	 * 
+	 */
+	@Override
+	public int getPriority() {
+		return PRIORITY_INTERACTIVE;
+	}
+
 	/**
 	 * Text for GUI panel of the worker
 	 * 
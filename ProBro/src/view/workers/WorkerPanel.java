@@ -116,11 +116,18 @@ public class WorkerPanel extends JPanel {
 		if (progressBar != null) remove(progressBar);
 		
 		String[] out = parent.getOutputText();
-		texts = new JLabel[out.length];
+		int pos = parent.getQueuePosition();
+		texts = new JLabel[out.length + (pos > 0 ? 1 : 0)];
 		for(int num=0; num<out.length; num++) {
 			texts[num] = new JLabel(out[num], SwingConstants.TRAILING);
 			add(texts[num]);
 		}
+		if (pos > 0) {
+			// Waiting for the scheduler
+			texts[out.length] = new JLabel(Messages.getString("WorkerPanel.QueuePosition", pos), SwingConstants.TRAILING); //$NON-NLS-1$
+			texts[out.length].setEnabled(false);
+			add(texts[out.length]);
+		}
 		if (progressBar != null) add(progressBar);
 
 		if (parent.isKilled()) this.setBackground(killedColor);
@@ -0,0 +1,153 @@
+package view.workers;
+
+import java.util.LinkedList;
+
+import main.Main;
+
+/**
+ * Scheduler for the workers, used instead of the shared default executor of SwingWorker
+ * (see CustomSwingWorker.schedule()). Each worker belongs to a priority class (see
+ * CustomSwingWorker.getPriority()), and each class has its own limit of workers running at
+ * the same time, so long running jobs (scans, archiving) can not block the ones the user is
+ * waiting for (tree expansion). Waiting workers are started by priority: Whenever a worker
+ * finishes, the waiting workers of the higher classes are started first. The threads of the
+ * lower classes also run with lower thread priorities.
+ *
+ * @author tweber
+ *
+ */
+public class WorkerScheduler {
+
+	/**
+	 * Max. number of running workers for each priority class
+	 */
+	private static final int[] MAX_RUNNING = {4, 2, 2, 1};
+
+	/**
+	 * Thread priorities for each priority class
+	 */
+	private static final int[] THREAD_PRIORITIES = {Thread.NORM_PRIORITY, Thread.NORM_PRIORITY, Thread.NORM_PRIORITY - 1, Thread.NORM_PRIORITY - 2};
+
+	/**
+	 * Waiting workers for each priority class, in scheduling order
+	 */
+	@SuppressWarnings("rawtypes")
+	private LinkedList<CustomSwingWorker>[] queues;
+
+	/**
+	 * Number of running workers for each priority class
+	 */
+	private int[] running = new int[MAX_RUNNING.length];
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public WorkerScheduler() {
+		queues = new LinkedList[MAX_RUNNING.length];
+		for (int i = 0; i < queues.length; i++) {
+			queues[i] = new LinkedList<CustomSwingWorker>();
+		}
+	}
+
+	/**
+	 * Schedule a worker for execution in a background thread
+	 *
+	 * @param worker
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized void schedule(CustomSwingWorker worker) {
+		queues[getPriorityClass(worker)].add(worker);
+		dispatch();
+	}
+
+	/**
+	 * Returns the position of the worker among all waiting workers (1 for the next one
+	 * to be started), or 0 if it is not waiting.
+	 *
+	 * @param worker
+	 * @return
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized int getQueuePosition(CustomSwingWorker worker) {
+		int pos = 0;
+		for (LinkedList<CustomSwingWorker> queue : queues) {
+			int i = queue.indexOf(worker);
+			if (i >= 0) return pos + i + 1;
+			pos += queue.size();
+		}
+		return 0;
+	}
+
+	/**
+	 * Start waiting workers, higher priority classes first, as far as their limits allow.
+	 * The waiting workers get their new queue positions shown.
+	 *
+	 */
+	@SuppressWarnings("rawtypes")
+	private void dispatch() {
+		for (int p = 0; p < queues.length; p++) {
+			while (running[p] < MAX_RUNNING[p] && !queues[p].isEmpty()) {
+				CustomSwingWorker worker = queues[p].poll();
+
+				// Cancelled while waiting
+				if (worker.isDone()) continue;
+
+				start(worker, p);
+			}
+		}
+
+		for (LinkedList<CustomSwingWorker> queue : queues) {
+			for (CustomSwingWorker worker : queue) {
+				worker.updateText();
+			}
+		}
+	}
+
+	/**
+	 * Run a worker in a new thread
+	 *
+	 * @param worker
+	 * @param p priority class
+	 */
+	@SuppressWarnings("rawtypes")
+	private void start(final CustomSwingWorker worker, final int p) {
+		running[p]++;
+		worker.updateText();
+
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					worker.run();
+
+				} catch (Throwable e) {
+					Main.handleThrowable(e);
+				} finally {
+					finished(p);
+				}
+			}
+		}, "Worker-" + worker.getClass().getSimpleName()); //$NON-NLS-1$
+		t.setDaemon(true);
+		t.setPriority(THREAD_PRIORITIES[p]);
+		t.start();
+	}
+
+	/**
+	 * A worker of the given priority class has finished
+	 *
+	 * @param p
+	 */
+	private synchronized void finished(int p) {
+		running[p]--;
+		dispatch();
+	}
+
+	/**
+	 * Returns the priority class of a worker, limited to the known ones
+	 *
+	 * @param worker
+	 * @return
+	 */
+	@SuppressWarnings("rawtypes")
+	private int getPriorityClass(CustomSwingWorker worker) {
+		return Math.max(0, Math.min(queues.length - 1, worker.getPriority()));
+	}
+}
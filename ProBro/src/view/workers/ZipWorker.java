@@ -1,15 +1,22 @@
 package view.workers;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JOptionPane;
 
 import view.MainPanel;
 import main.Main;
 import main.Messages;
+import main.Utils;
+import model.CompactDirTree;
 import model.DirEntry;
 
 /**
@@ -88,7 +95,7 @@ public class ZipWorker extends CustomSwingWorker<Void, Void> {
 		if (rootFile == null) {
 			return;
 		}
-		panel.update();
+		updateText();
 		
 		if (!rootFile.exists()) {
 			JOptionPane.showMessageDialog(null, Messages.getString("ZipWorker.MsgFileNotFound", rootFile), Messages.getString("ZipWorker.ErrorTitle"), JOptionPane.ERROR_MESSAGE);  //$NON-NLS-1$ 
@@ -96,30 +103,57 @@ public class ZipWorker extends CustomSwingWorker<Void, Void> {
 		}
 		
 		// Get number of files and folders (including hidden files) for 
-		// initialization of the progress bar. First we need a clone of rootFile which
-		// also loads hidden files!
-		DirEntry tmp = new DirEntry(rootFile.getAbsolutePath(), null, true);
-		List<DirEntry> first = tmp.getChildren();
-
+		// initialization of the progress bar. This only needs the counts, so we 
+		// use compact trees instead of DirEntry instances, one for each child, 
+		// which are loaded in parallel.
 		if (rootFile.isDirectory()) {
-			panel.progressBar.setIndeterminate(false);
-			panel.progressBar.setMaximum(first.size());
-			panel.progressBar.setValue(0);
+			CompactDirTree tmp = new CompactDirTree(rootFile, true);
+			tmp.loadChildren(tmp.getRoot());
+			int[] first = tmp.getChildren(tmp.getRoot());
+
+			setProgressMaximum(first.length);
+			setProgressValue(0);
 	
-			for (int num = 0; num < first.size(); num++) {
-				first.get(num).loadFully();
-				panel.progressBar.setValue(num+1);
-				gui.details.repaint();
+			// Load the children in parallel, and wait for them one after another
+			final AtomicBoolean cancelled = new AtomicBoolean(false);
+			List<ForkJoinTask<Long>> tasks = new ArrayList<ForkJoinTask<Long>>();
+			for (int child : first) {
+				final File file = tmp.getFile(child);
+				tasks.add(Utils.getForkJoinPool().submit(new Callable<Long>() {
+					@Override
+					public Long call() throws Exception {
+						try {
+							CompactDirTree t = new CompactDirTree(file, true);
+							t.loadFully(t.getRoot(), cancelled);
+							return t.getNumOfFiles(t.getRoot()) + t.getNumOfFolders(t.getRoot());
+							
+						} catch (Exception e) {
+							throw e;
+						} catch (Throwable t) {
+							throw new Exception(t);
+						}
+					}
+				}));
+			}
+			
+			long num = 1;
+			for (int i = 0; i < tasks.size(); i++) {
+				if (isKilled()) {
+					cancelled.set(true);
+					return;
+				}
+				num += tasks.get(i).join();
+				setProgressValue(i+1);
+				repaintDetails();
 			}
-			tmp.loadFully();
 
 			// Now, zip the file/folder (the progress bar starts again)
-			panel.progressBar.setMaximum((int)(tmp.getNumOfFiles() + tmp.getNumOfFolders()));
-			panel.progressBar.setValue(0);
+			setProgressMaximum((int)num);
+			setProgressValue(0);
 		}
 		
 		state = 1;
-		panel.update();
+		updateText();
 		
 		System.out.println("Zipping file " + rootFile.getAbsolutePath()); //$NON-NLS-1$
 		
@@ -155,7 +189,7 @@ public class ZipWorker extends CustomSwingWorker<Void, Void> {
 		
 		if (line.contains("adding") || line.contains("updating")) { //$NON-NLS-1$ //$NON-NLS-2$
 			// One more file or folder added -> update progress bar and text 
-			panel.progressBar.setValue(panel.progressBar.getValue() + 1);
+			incrementProgress();
 			return;
 		} 
 		if (line.contains("name not matched")) { //$NON-NLS-1$
@@ -174,14 +208,28 @@ public class ZipWorker extends CustomSwingWorker<Void, Void> {
 		try {
 			super.done();
 			
-			// Update file list
-			gui.refresh();
+			// Update file list of the folder containing the new ZIP file
+			if (rootFile == null) return;
+			if (rootFile.getParentDirEntry() != null) {
+				gui.refresh(rootFile.getParentDirEntry());
+			} else {
+				gui.refresh();
+			}
 			
 		} catch (Throwable e) {
 			Main.handleThrowable(e);
 		}
 	}
 
+	/**
+	 * Priority class for the scheduler
+	 * 
+	 */
+	@Override
+	public int getPriority() {
+		return PRIORITY_ARCHIVING;
+	}
+
 	/**
 	 * Output text for workers GUI panel
 	 * 